@@ -0,0 +1,115 @@
+package org.example.demo.benchmark;
+
+import org.example.demo.dto.request.OrderItemRequestDTO;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.model.Client;
+import org.example.demo.model.Order;
+import org.example.demo.model.OrderItem;
+import org.example.demo.model.Product;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Realistic entities and in-memory repository stand-ins for the benchmarks.
+// Mockito is deliberately avoided: it records every invocation and would dominate the measurement.
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Client client(CustomerTier tier) {
+        return Client.builder()
+                .id(1L)
+                .fullName("Benchmark Client")
+                .email("bench@example.com")
+                .phone("0612345678")
+                .address("Casablanca")
+                .fidelityLevel(tier)
+                .build();
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id((long) i + 1)
+                    .name("Product " + i)
+                    .description("Benchmark product " + i)
+                    .unitPrice(BigDecimal.valueOf(1999 + i * 37L, 2))
+                    .stockQuantity(Integer.MAX_VALUE)
+                    .isDeleted(false)
+                    .build());
+        }
+        return products;
+    }
+
+    static OrderRequestDTO orderRequest(List<Product> products) {
+        List<OrderItemRequestDTO> items = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            items.add(new OrderItemRequestDTO(products.get(i).getId(), 1 + i % 5));
+        }
+        return new OrderRequestDTO(1L, items, "PROMO-AB12");
+    }
+
+    static Order order(Client client, List<Product> products) {
+        Order order = Order.builder()
+                .id(1L)
+                .client(client)
+                .orderDate(LocalDateTime.now())
+                .status(OrderStatus.PENDING)
+                .discount(BigDecimal.ZERO)
+                .build();
+        List<OrderItem> items = new ArrayList<>(products.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            int quantity = 1 + i % 5;
+            BigDecimal total = product.getUnitPrice().multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+            items.add(OrderItem.builder()
+                    .id((long) i + 1)
+                    .order(order)
+                    .product(product)
+                    .quantity(quantity)
+                    .unitPrice(product.getUnitPrice())
+                    .totalPrice(total)
+                    .build());
+            subtotal = subtotal.add(total);
+        }
+        BigDecimal vat = subtotal.multiply(new BigDecimal("0.20")).setScale(2, RoundingMode.HALF_UP);
+        order.setOrderItems(items);
+        order.setSubtotal(subtotal);
+        order.setVat(vat);
+        order.setTotal(subtotal.add(vat));
+        order.setRemainingAmount(subtotal.add(vat));
+        return order;
+    }
+
+    // Builds a repository whose methods are answered by name; any other call fails loudly
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + " (benchmark fixture)";
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.demo.benchmark;
+
+import org.example.demo.dto.request.ProductRequestDTO;
+import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.dto.response.ProductResponseDTO;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.mappers.OrderMapper;
+import org.example.demo.mappers.ProductMapper;
+import org.example.demo.model.Order;
+import org.example.demo.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping on initialised entities (no lazy loading involved)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"1", "20", "200"})
+    private int lines;
+
+    private final OrderMapper orderMapper = new OrderMapper();
+    private final ProductMapper productMapper = new ProductMapper();
+
+    private Order order;
+    private Product product;
+    private ProductRequestDTO productRequest;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.order(BenchmarkFixtures.client(CustomerTier.SILVER), BenchmarkFixtures.products(lines));
+        product = order.getOrderItems().get(0).getProduct();
+        productRequest = new ProductRequestDTO();
+        productRequest.setName("Dell Latitude 5440");
+        productRequest.setDescription("14 inch business laptop");
+        productRequest.setUnitPrice(new BigDecimal("11999.00"));
+        productRequest.setStockQuantity(25);
+    }
+
+    @Benchmark
+    public OrderResponseDTO orderToResponse() {
+        return orderMapper.toResponse(order);
+    }
+
+    @Benchmark
+    public ProductResponseDTO productToResponse() {
+        return productMapper.toResponse(product, product.getStockQuantity());
+    }
+
+    @Benchmark
+    public Product productToEntity() {
+        return productMapper.toEntity(productRequest);
+    }
+}
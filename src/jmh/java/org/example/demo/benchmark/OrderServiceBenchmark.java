@@ -0,0 +1,73 @@
+package org.example.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.mappers.OrderMapper;
+import org.example.demo.model.Client;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.OutboxEventRepository;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductStock;
+import org.example.demo.repository.StockMovementRepository;
+import org.example.demo.service.OrderService;
+import org.example.demo.service.OutboxService;
+import org.example.demo.service.PricingRules;
+import org.example.demo.service.StockReservationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// OrderService.createOrder without the database: validation, pricing, stock reservation calls and mapping
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "20", "200"})
+    private int lines;
+
+    @Param({"BASIC", "GOLD", "PLATINUM"})
+    private CustomerTier tier;
+
+    private OrderService orderService;
+    private OrderRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        Client client = BenchmarkFixtures.client(tier);
+        List<Product> products = BenchmarkFixtures.products(lines);
+        request = BenchmarkFixtures.orderRequest(products);
+
+        ClientRepository clientRepository = BenchmarkFixtures.repository(ClientRepository.class,
+                Map.of("findById", args -> Optional.of(client)));
+        ProductRepository productRepository = BenchmarkFixtures.repository(ProductRepository.class, Map.of(
+                "findAllById", args -> products,
+                "lockAllByIdIn", args -> products));
+        List<ProductStock> stock = products.stream()
+                .map(p -> new ProductStock(p.getId(), (long) Integer.MAX_VALUE))
+                .toList();
+        StockMovementRepository stockMovementRepository = BenchmarkFixtures.repository(StockMovementRepository.class, Map.of(
+                "findAvailableStock", args -> stock,
+                "saveAll", args -> args[0]));
+        OrderRepository orderRepository = BenchmarkFixtures.repository(OrderRepository.class,
+                Map.of("save", args -> args[0]));
+
+        orderService = new OrderService(orderRepository, clientRepository, productRepository,
+                new StockReservationService(productRepository, stockMovementRepository, new NoOpCacheManager()), new OrderMapper(), PricingRules.defaults(),
+                event -> { }, new OutboxService(BenchmarkFixtures.repository(OutboxEventRepository.class, Map.of()),
+                new ObjectMapper()));
+    }
+
+    @Benchmark
+    public OrderResponseDTO createOrder() {
+        return orderService.createOrder(request);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.demo.dto.request.PaymentRequestDTO;
+import org.example.demo.dto.response.PaymentResponseDTO;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.PaymentType;
+import org.example.demo.mappers.PaymentMapper;
+import org.example.demo.model.Order;
+import org.example.demo.repository.OrderPaymentSummary;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.OutboxEventRepository;
+import org.example.demo.repository.PaymentRepository;
+import org.example.demo.service.OutboxService;
+import org.example.demo.service.PaymentService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// PaymentService.addPayment without the database: validation rules, numbering and response mapping
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    @Param({"CASH", "CHECK", "TRANSFER"})
+    private PaymentType paymentType;
+
+    private PaymentService paymentService;
+    private PaymentRequestDTO request;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.order(BenchmarkFixtures.client(CustomerTier.GOLD), BenchmarkFixtures.products(20));
+        request = new PaymentRequestDTO(new BigDecimal("1500.00"), paymentType, "REF-2024-001", "Attijariwafa Bank",
+                LocalDate.now().plusDays(30));
+
+        OrderRepository orderRepository = BenchmarkFixtures.repository(OrderRepository.class, Map.of(
+                "getReferenceById", args -> order,
+                "deductRemainingAmount", args -> 1,
+                "findRemainingAmountById", args -> order.getRemainingAmount()));
+        PaymentRepository paymentRepository = BenchmarkFixtures.repository(PaymentRepository.class, Map.of(
+                "findSummaryByOrderId", args -> Optional.of(new OrderPaymentSummary(order.getId(), order.getStatus(),
+                        order.getTotal(), 3, BigDecimal.ZERO, BigDecimal.ZERO)),
+                "saveAndFlush", args -> args[0]));
+
+        paymentService = new PaymentService(paymentRepository, orderRepository, new PaymentMapper(),
+                new OutboxService(BenchmarkFixtures.repository(OutboxEventRepository.class,
+                        Map.of("save", args -> args[0])), new ObjectMapper().findAndRegisterModules()));
+    }
+
+    @Benchmark
+    public PaymentResponseDTO addPayment() {
+        return paymentService.addPayment(1L, request);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.demo.benchmark;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.service.PricingRules;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+// Per-order pricing cost: the inline calculation OrderService used before PricingRules vs PricingRules
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    @Param({"BASIC", "SILVER", "PLATINUM"})
+    private CustomerTier tier;
+
+    @Param({"PROMO-AB12", ""})
+    private String promoCode;
+
+    private final PricingRules pricingRules = PricingRules.defaults();
+    private final BigDecimal vatRate = new BigDecimal("0.20");
+    private final BigDecimal subtotal = new BigDecimal("1499.90");
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        BigDecimal loyaltyDiscount = legacyLoyaltyDiscount(tier, subtotal);
+        BigDecimal promoDiscount = BigDecimal.ZERO;
+        if (!promoCode.isEmpty() && promoCode.matches("PROMO-[A-Z0-9]{4}")) {
+            promoDiscount = subtotal.multiply(new BigDecimal("0.05")).setScale(2, RoundingMode.HALF_UP);
+        }
+        BigDecimal totalDiscount = loyaltyDiscount.add(promoDiscount).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal subtotalAfterDiscount = subtotal.subtract(totalDiscount).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal vat = subtotalAfterDiscount.multiply(vatRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal total = subtotalAfterDiscount.add(vat).setScale(2, RoundingMode.HALF_UP);
+        bh.consume(totalDiscount);
+        bh.consume(vat);
+        bh.consume(total);
+    }
+
+    @Benchmark
+    public PricingRules.PriceBreakdown rules() {
+        boolean promoApplied = !promoCode.isEmpty() && pricingRules.isValidPromoCode(promoCode);
+        return pricingRules.price(tier, subtotal, promoApplied);
+    }
+
+    private static BigDecimal legacyLoyaltyDiscount(CustomerTier tier, BigDecimal subtotal) {
+        BigDecimal discount = BigDecimal.ZERO;
+        switch (tier) {
+            case SILVER:
+                if (subtotal.compareTo(new BigDecimal("500")) >= 0) {
+                    discount = subtotal.multiply(new BigDecimal("0.05"));
+                }
+                break;
+            case GOLD:
+                if (subtotal.compareTo(new BigDecimal("800")) >= 0) {
+                    discount = subtotal.multiply(new BigDecimal("0.10"));
+                }
+                break;
+            case PLATINUM:
+                if (subtotal.compareTo(new BigDecimal("1200")) >= 0) {
+                    discount = subtotal.multiply(new BigDecimal("0.15"));
+                }
+                break;
+            default:
+                break;
+        }
+        return discount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
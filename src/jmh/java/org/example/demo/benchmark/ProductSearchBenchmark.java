@@ -0,0 +1,75 @@
+package org.example.demo.benchmark;
+
+import org.example.demo.model.Product;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductSearchDocument;
+import org.example.demo.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Search latency over a synthetic catalog: exact terms, a short prefix, and a misspelled term. Products
+// added and removed after the last rebuild leave free document slots behind; run with -prof gc to check that
+// neither they nor the catalog size show up in the allocation per search.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "clavier", "souris", "ecran", "cable", "chargeur", "casque", "imprimante", "cartouche", "routeur",
+            "adaptateur", "batterie", "webcam", "micro", "enceinte", "disque", "memoire", "processeur", "boitier",
+            "ventilateur", "tapis", "support", "station", "hub", "lecteur", "scanner", "tablette", "stylet",
+            "sans", "fil", "usb", "bluetooth", "noir", "blanc", "gris", "pro", "mini", "ultra", "gaming", "bureau"
+    };
+
+    @Param({"50000", "500000"})
+    private int catalogSize;
+
+    @Param({"souris sans fil", "imp", "chargueur usb"})
+    private String query;
+
+    @Param({"0", "100000"})
+    private int removedSinceRebuild;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ProductSearchDocument> documents = IntStream.range(0, catalogSize)
+                .mapToObj(i -> new ProductSearchDocument((long) i + 1,
+                        WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + "ref" + i,
+                        WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                                + WORDS[random.nextInt(WORDS.length)] + " modele " + (i % 997)))
+                .toList();
+        ProductRepository productRepository = BenchmarkFixtures.repository(ProductRepository.class,
+                Map.of("streamSearchDocuments", args -> documents.stream()));
+        PlatformTransactionManager transactionManager = BenchmarkFixtures.repository(PlatformTransactionManager.class,
+                Map.of("getTransaction", args -> new SimpleTransactionStatus(),
+                        "commit", args -> null));
+        index = new ProductSearchIndex(productRepository, transactionManager);
+        index.rebuild();
+        for (int i = 0; i < removedSinceRebuild; i++) {
+            Product product = Product.builder()
+                    .id((long) catalogSize + i + 1)
+                    .name(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)])
+                    .description(WORDS[random.nextInt(WORDS.length)] + " modele " + (i % 997))
+                    .isDeleted(false)
+                    .build();
+            index.index(product);
+            index.remove(product.getId());
+        }
+    }
+
+    @Benchmark
+    public List<ProductSearchIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.demo.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricsAspect {
+
+    private static final String BUSINESS_EXCEPTION_PACKAGE = "org.example.demo.exception";
+
+    private final MeterRegistry meterRegistry;
+
+    // Latency histogram per service method, tagged with the outcome (success or exception type).
+    // Repository calls are timed by Spring Boot's spring.data.repository.invocations metric.
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            if (e.getClass().getPackageName().equals(BUSINESS_EXCEPTION_PACKAGE)) {
+                // Business rule rejections: insufficient stock, invalid promo code, cash limit, ...
+                Counter.builder("app.business.rejections")
+                        .tag("service", service)
+                        .tag("method", method)
+                        .tag("reason", outcome)
+                        .register(meterRegistry)
+                        .increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("app.service")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
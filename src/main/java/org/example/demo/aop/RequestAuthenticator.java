@@ -0,0 +1,54 @@
+package org.example.demo.aop;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.example.demo.enums.UserRole;
+import org.example.demo.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// Resolves the caller of the current request, either from the HTTP session (app.auth.mode=session)
+// or from a signed "Authorization: Bearer" token (app.auth.mode=token)
+@Component
+public class RequestAuthenticator {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final boolean tokenMode;
+
+    public RequestAuthenticator(TokenService tokenService, @Value("${app.auth.mode:session}") String mode) {
+        this.tokenService = tokenService;
+        this.tokenMode = "token".equalsIgnoreCase(mode);
+        if (tokenMode && !tokenService.isConfigured()) {
+            throw new IllegalStateException("app.auth.mode=token requires app.auth.token.secret");
+        }
+    }
+
+    public boolean isTokenMode() {
+        return tokenMode;
+    }
+
+    public Optional<TokenService.Claims> authenticate(HttpServletRequest request) {
+        if (tokenMode) {
+            String header = request.getHeader("Authorization");
+            if (header == null || !header.startsWith(BEARER)) {
+                return Optional.empty();
+            }
+            return tokenService.verify(header.substring(BEARER.length()));
+        }
+
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return Optional.empty();
+        }
+        Long userId = (Long) session.getAttribute("userId");
+        String role = (String) session.getAttribute("userRole");
+        if (userId == null || role == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TokenService.Claims(userId, UserRole.valueOf(role)));
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.demo.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Re-runs a @Transactional method in a fresh transaction when it loses an optimistic-locking race
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    // Total number of attempts, including the first one
+    int maxAttempts() default 3;
+}
@@ -0,0 +1,47 @@
+package org.example.demo.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.demo.exception.ConcurrentUpdateException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Ordered before the transaction interceptor (LOWEST_PRECEDENCE), so every attempt runs in its own
+// transaction and re-reads the state it lost the race on. Inside a caller's transaction nothing is
+// retried: that transaction is already rolled back, so the conflict goes up to the caller's own retry.
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    private static final long BACKOFF_MILLIS = 20;
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        int maxAttempts = Math.max(retryOnConflict.maxAttempts(), 1);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrentUpdateException("The resource was modified concurrently, please retry", e);
+                }
+                log.debug("{} lost a concurrent update (attempt {}/{}), retrying",
+                        joinPoint.getSignature().toShortString(), attempt, maxAttempts);
+                // Randomized backoff so the competing callers do not collide again in lockstep
+                Thread.sleep(ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS * attempt) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // ProductResponseDTO by product id
+    public static final String PRODUCTS = "products";
+    // Page<ProductResponseDTO> of the non-deleted catalog by Pageable
+    public static final String PRODUCT_PAGES = "productPages";
+    // Stored responses of recent Idempotency-Key requests, in front of the idempotency_keys table
+    public static final String IDEMPOTENCY = "idempotency";
+
+    // Evictions issued inside a transaction are applied after commit, so a concurrent
+    // reader cannot put the pre-commit value back into the cache.
+    // Cache hit/miss/eviction metrics are bound by Spring Boot (cache.gets, cache.evictions, ...).
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.products.spec:maximumSize=10000,expireAfterWrite=10m}") String productsSpec,
+                                     @Value("${app.cache.product-pages.spec:maximumSize=500,expireAfterWrite=10s}") String pagesSpec,
+                                     @Value("${app.cache.idempotency.spec:maximumSize=10000,expireAfterWrite=10m}") String idempotencySpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.from(productsSpec).recordStats().build());
+        cacheManager.registerCustomCache(PRODUCT_PAGES, Caffeine.from(pagesSpec).recordStats().build());
+        cacheManager.registerCustomCache(IDEMPOTENCY, Caffeine.from(idempotencySpec).recordStats().build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,11 +1,14 @@
 package org.example.demo.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
+import org.example.demo.aop.RequestAuthenticator;
 import org.example.demo.dto.request.LoginRequestDTO;
 import org.example.demo.dto.request.RegisterRequestDTO;
 import org.example.demo.dto.response.AuthResponseDTO;
 import org.example.demo.exception.UnauthorizedException;
+import org.example.demo.service.TokenService;
 import org.example.demo.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -19,6 +22,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequestMapping("api/auth")
 public class AuthController {
     private final UserService userService;
+    private final TokenService tokenService;
+    private final RequestAuthenticator requestAuthenticator;
 
     @PostMapping("register")
     public ResponseEntity<AuthResponseDTO> register(@RequestBody RegisterRequestDTO req) {
@@ -27,26 +32,34 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@RequestBody LoginRequestDTO req, HttpSession session) {
+    public ResponseEntity<AuthResponseDTO> login(@RequestBody LoginRequestDTO req, HttpServletRequest request) {
         AuthResponseDTO res = userService.login(req);
-        session.setAttribute("userId", res.getId());
-        session.setAttribute("userRole", res.getRole().name()); // Store as String
+        if (requestAuthenticator.isTokenMode()) {
+            // Stateless: the client sends this back as "Authorization: Bearer <token>"
+            res.setToken(tokenService.issue(res.getId(), res.getRole()));
+        } else {
+            HttpSession session = request.getSession();
+            session.setAttribute("userId", res.getId());
+            session.setAttribute("userRole", res.getRole().name()); // Store as String
+        }
         return ResponseEntity.ok(res);
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<String> logout(HttpSession session) {
-        session.invalidate();
+    public ResponseEntity<String> logout(HttpServletRequest request) {
+        // Tokens are not stored anywhere; they simply expire
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
         return ResponseEntity.ok("logged out successfully");
     }
 
     @GetMapping("/me")
-    public ResponseEntity<AuthResponseDTO> getCurrentUser(HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
-        if (userId == null) {
-            throw new UnauthorizedException("You are not logged in");
-        }
-        AuthResponseDTO res = userService.getUserById(userId);
+    public ResponseEntity<AuthResponseDTO> getCurrentUser(HttpServletRequest request) {
+        TokenService.Claims user = requestAuthenticator.authenticate(request)
+                .orElseThrow(() -> new UnauthorizedException("You are not logged in"));
+        AuthResponseDTO res = userService.getUserById(user.userId());
         return ResponseEntity.ok(res);
     }
 }
@@ -1,22 +1,34 @@
 package org.example.demo.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.example.demo.aop.RequiresAdmin;
 import org.example.demo.aop.RequiresClient;
 import org.example.demo.dto.request.ClientRequestDTO;
 import org.example.demo.dto.request.ClientRequestUpdateDTO;
+import org.example.demo.dto.response.ClientPageResponseDTO;
 import org.example.demo.dto.response.ClientResponseDTO;
+import org.example.demo.enums.CustomerTier;
 import org.example.demo.service.ClientService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("api/clients")
 public class ClientController {
     private final ClientService clientService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @RequiresAdmin
@@ -27,11 +39,53 @@ public class ClientController {
 
     @GetMapping
     @RequiresAdmin
-    public ResponseEntity<List<ClientResponseDTO>> getAllClients() {
-        List<ClientResponseDTO> clients = clientService.getAllClients();
+    public ResponseEntity<Page<ClientResponseDTO>> getAllClients(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) CustomerTier fidelityLevel,
+            @RequestParam(required = false) Boolean isActive) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+        Page<ClientResponseDTO> clients = clientService.getAllClients(fidelityLevel, isActive, pageable);
         return ResponseEntity.ok(clients);
     }
 
+    @GetMapping("/scroll")
+    @RequiresAdmin
+    public ResponseEntity<ClientPageResponseDTO> scrollClients(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) CustomerTier fidelityLevel,
+            @RequestParam(required = false) Boolean isActive) {
+        ClientPageResponseDTO clients = clientService.getClientsAfter(afterId, fidelityLevel, isActive, size);
+        return ResponseEntity.ok(clients);
+    }
+
+    // One JSON object per line, written while the rows are still being read
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @RequiresAdmin
+    public ResponseEntity<StreamingResponseBody> exportClients(
+            @RequestParam(required = false) CustomerTier fidelityLevel,
+            @RequestParam(required = false) Boolean isActive) {
+        StreamingResponseBody body = out -> clientService.exportClients(fidelityLevel, isActive, client -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(client));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @PostMapping("/statistics/rebuild")
+    @RequiresAdmin
+    public ResponseEntity<Map<String, Integer>> rebuildStatistics() {
+        int clients = clientService.rebuildStatistics();
+        return ResponseEntity.ok(Map.of("clientsWithOrders", clients));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ClientResponseDTO> getClientById(@PathVariable Long id) {
         ClientResponseDTO client = clientService.getClientById(id);
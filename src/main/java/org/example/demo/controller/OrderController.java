@@ -1,15 +1,30 @@
 package org.example.demo.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.demo.aop.RequiresAdmin;
 import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderPageResponseDTO;
 import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.enums.IdempotencyScope;
+import org.example.demo.importer.CsvOrderImportReader;
+import org.example.demo.importer.JsonOrderImportReader;
+import org.example.demo.importer.OrderImportReader;
+import org.example.demo.service.IdempotencyService;
+import org.example.demo.service.OrderImportService;
 import org.example.demo.service.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 
 
 @RestController
@@ -18,12 +33,51 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderImportService orderImportService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
+    // A retry with the same Idempotency-Key gets the first response back instead of a second order
     @PostMapping
     @RequiresAdmin
-    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO req) {
-        OrderResponseDTO orderResponseDTO = orderService.createOrder(req);
-        return ResponseEntity.ok(orderResponseDTO);
+    public ResponseEntity<OrderResponseDTO> createOrder(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequestDTO req) {
+        IdempotencyService.Outcome<OrderResponseDTO> outcome = idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, idempotencyKey, req, OrderResponseDTO.class,
+                () -> orderService.createOrder(req));
+        return ResponseEntity.ok()
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
+    }
+
+    // Bulk import from a JSON array, NDJSON or CSV body; answers with one NDJSON result line per order,
+    // written as each chunk commits
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson", "text/csv"},
+            produces = "application/x-ndjson")
+    @RequiresAdmin
+    public ResponseEntity<StreamingResponseBody> importOrders(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) Integer chunkSize,
+            InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        StreamingResponseBody results = out -> {
+            try (OrderImportReader reader = csv
+                    ? new CsvOrderImportReader(body)
+                    : new JsonOrderImportReader(objectMapper, body)) {
+                orderImportService.importOrders(reader, chunkSize, result -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(result));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(results);
     }
 
     @PatchMapping("/{orderId}/cancel")
@@ -49,8 +103,12 @@ public class OrderController {
 
     @GetMapping("/client/{clientId}")
     @RequiresAdmin
-    public ResponseEntity<List<OrderResponseDTO>> getOrdersByClient(@PathVariable Long clientId) {
-        List<OrderResponseDTO> orders = orderService.getOrdersByClient(clientId);
+    public ResponseEntity<OrderPageResponseDTO> getOrdersByClient(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "20") int size) {
+        OrderPageResponseDTO orders = orderService.getOrdersByClient(clientId, cursorDate, cursorId, size);
         return ResponseEntity.ok(orders);
     }
 }
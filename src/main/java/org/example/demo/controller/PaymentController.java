@@ -5,25 +5,50 @@ import lombok.RequiredArgsConstructor;
 import org.example.demo.aop.RequiresAdmin;
 import org.example.demo.dto.request.PaymentRequestDTO;
 import org.example.demo.dto.request.PaymentStatusUpdateDTO;
+import org.example.demo.dto.response.PaymentClearingReportDTO;
 import org.example.demo.dto.response.PaymentResponseDTO;
+import org.example.demo.dto.response.PaymentSummaryDTO;
+import org.example.demo.enums.IdempotencyScope;
+import org.example.demo.importer.CsvClearingFileReader;
+import org.example.demo.service.IdempotencyService;
+import org.example.demo.service.PaymentClearingService;
 import org.example.demo.service.PaymentService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("api/orders")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentClearingService paymentClearingService;
+    private final IdempotencyService idempotencyService;
 
+    // A retry with the same Idempotency-Key gets the first response back instead of a second payment
     @PostMapping("/{orderId}/payments")
     @RequiresAdmin
     public ResponseEntity<PaymentResponseDTO> addPayment(
             @PathVariable Long orderId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequestDTO req) {
-        PaymentResponseDTO payment = paymentService.addPayment(orderId, req);
-        return ResponseEntity.ok(payment);
+        IdempotencyService.Outcome<PaymentResponseDTO> outcome = idempotencyService.execute(
+                IdempotencyScope.ADD_PAYMENT, idempotencyKey, List.of(orderId, req), PaymentResponseDTO.class,
+                () -> paymentService.addPayment(orderId, req));
+        return ResponseEntity.ok()
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
+    }
+
+    @GetMapping("/{orderId}/payments/summary")
+    @RequiresAdmin
+    public ResponseEntity<PaymentSummaryDTO> getPaymentSummary(@PathVariable Long orderId) {
+        PaymentSummaryDTO summary = paymentService.getPaymentSummary(orderId);
+        return ResponseEntity.ok(summary);
     }
 
     @PatchMapping("/payments/{paymentId}/status")
@@ -34,4 +59,15 @@ public class PaymentController {
         PaymentResponseDTO payment = paymentService.updatePaymentStatus(paymentId, req);
         return ResponseEntity.ok(payment);
     }
+
+    // Bank reconciliation file (CSV), applied in chunked transactions; the report lists every line not applied
+    @PostMapping(value = "/payments/clearing", consumes = "text/csv")
+    @RequiresAdmin
+    public ResponseEntity<PaymentClearingReportDTO> clearPayments(
+            @RequestParam(required = false) Integer chunkSize,
+            InputStream body) throws IOException {
+        try (CsvClearingFileReader reader = new CsvClearingFileReader(body)) {
+            return ResponseEntity.ok(paymentClearingService.clear(reader, chunkSize));
+        }
+    }
 }
@@ -5,6 +5,7 @@ import org.example.demo.aop.RequiresAdmin;
 import org.example.demo.dto.request.ProductRequestDTO;
 import org.example.demo.dto.request.ProductRequestUpdateDTO;
 import org.example.demo.dto.response.ProductResponseDTO;
+import org.example.demo.dto.response.StockMovementResponseDTO;
 import org.example.demo.service.ProductService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -13,6 +14,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("api/products")
@@ -39,6 +42,15 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    // Best matches first; terms match by prefix and tolerate one typo
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponseDTO>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<ProductResponseDTO> products = productService.searchProducts(q, limit);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/{id}")
     @RequiresAdmin
     public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
@@ -59,4 +71,14 @@ public class ProductController {
         ProductResponseDTO product = productService.deleteProduct(id);
         return ResponseEntity.ok(product);
     }
+
+    @GetMapping("/{id}/stock-movements")
+    @RequiresAdmin
+    public ResponseEntity<Page<StockMovementResponseDTO>> getStockMovements(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<StockMovementResponseDTO> movements = productService.getStockMovements(id, PageRequest.of(page, size));
+        return ResponseEntity.ok(movements);
+    }
 }
@@ -0,0 +1,46 @@
+package org.example.demo.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.demo.aop.RequiresAdmin;
+import org.example.demo.dto.response.SalesReportRowDTO;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.SalesDimension;
+import org.example.demo.service.SalesReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/reports")
+public class ReportController {
+    private final SalesReportService salesReportService;
+
+    // from and to are inclusive order days
+    @GetMapping("/sales")
+    @RequiresAdmin
+    public ResponseEntity<List<SalesReportRowDTO>> getSales(
+            @RequestParam(defaultValue = "DAY") SalesDimension groupBy,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) CustomerTier tier,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<SalesReportRowDTO> rows = salesReportService.getSales(groupBy, from, to, status, tier, limit);
+        return ResponseEntity.ok(rows);
+    }
+
+    @PostMapping("/sales/rebuild")
+    @RequiresAdmin
+    public ResponseEntity<Map<String, Integer>> rebuildSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int rows = salesReportService.rebuild(from, to);
+        return ResponseEntity.ok(Map.of("rollupRows", rows));
+    }
+}
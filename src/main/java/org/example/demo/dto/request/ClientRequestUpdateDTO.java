@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import org.example.demo.enums.CustomerTier;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -31,7 +32,7 @@ public class ClientRequestUpdateDTO {
     private Integer totalOrders;
     
     @Min(value = 0, message = "Total spent cannot be negative")
-    private Double totalSpent;
+    private BigDecimal totalSpent;
     
     private LocalDateTime lastOrderDate;
 }
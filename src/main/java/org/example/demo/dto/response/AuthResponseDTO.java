@@ -9,4 +9,6 @@ public class AuthResponseDTO {
     private String userName;
     private UserRole role;
     private String message;
+    // Signed access token, only set when app.auth.mode=token
+    private String token;
 }
@@ -0,0 +1,18 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientPageResponseDTO {
+
+    private List<ClientResponseDTO> clients;
+    private boolean hasNext;
+    // Pass back as afterId to get the next page
+    private Long nextCursorId;
+}
@@ -3,6 +3,7 @@ package org.example.demo.dto.response;
 import lombok.Data;
 import org.example.demo.enums.CustomerTier;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,7 +15,7 @@ public class ClientResponseDTO {
     private String address;
     private CustomerTier customerTier;
     private Integer totalOrders;
-    private Double totalSpent;
+    private BigDecimal totalSpent;
     private LocalDateTime fistOrderDate;
     private LocalDateTime lastOrderDate;
     private Boolean isActive;
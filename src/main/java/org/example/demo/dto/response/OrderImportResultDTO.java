@@ -0,0 +1,23 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.demo.enums.OrderImportStatus;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportResultDTO {
+
+    // Position of the order in the imported file, starting at 1
+    private int index;
+    // Partner reference from the file, if any
+    private String reference;
+    private OrderImportStatus status;
+    private Long orderId;
+    private BigDecimal total;
+    private String error;
+}
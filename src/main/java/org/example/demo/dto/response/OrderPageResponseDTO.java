@@ -0,0 +1,20 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponseDTO {
+
+    private List<OrderResponseDTO> orders;
+    private boolean hasNext;
+    // Pass back as cursorDate/cursorId to get the next page
+    private LocalDateTime nextCursorDate;
+    private Long nextCursorId;
+}
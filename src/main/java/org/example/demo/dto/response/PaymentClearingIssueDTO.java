@@ -0,0 +1,20 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.demo.enums.PaymentClearingOutcome;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentClearingIssueDTO {
+
+    // Line of the reconciliation file, the header being line 1
+    private int lineNumber;
+    private String reference;
+    private PaymentClearingOutcome outcome;
+    // Matched payment, when there was one
+    private Long paymentId;
+    private String error;
+}
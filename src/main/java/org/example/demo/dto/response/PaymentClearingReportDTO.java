@@ -0,0 +1,18 @@
+package org.example.demo.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class PaymentClearingReportDTO {
+
+    private int lines;
+    private int cashed;
+    private int rejected;
+    // Every line that was not applied, in file order
+    private List<PaymentClearingIssueDTO> issues = new ArrayList<>();
+}
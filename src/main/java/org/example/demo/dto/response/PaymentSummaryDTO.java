@@ -0,0 +1,18 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummaryDTO {
+    private Long orderId;
+    private Integer nextPaymentNumber;
+    private BigDecimal cashedTotal;
+    private BigDecimal pendingTotal;
+    private BigDecimal remainingAmount;
+}
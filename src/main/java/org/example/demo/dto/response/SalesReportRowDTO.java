@@ -0,0 +1,22 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportRowDTO {
+    // Day (yyyy-MM-dd), product id, tier or status, depending on the requested dimension
+    private String key;
+    private String label;
+    // Orders, or order lines when grouped by product
+    private Long orders;
+    // Only known per product
+    private Long quantity;
+    // Order totals (VAT included), or line totals before discount and VAT when grouped by product
+    private BigDecimal revenue;
+}
@@ -0,0 +1,19 @@
+package org.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.demo.enums.StockMovementType;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementResponseDTO {
+    private Long id;
+    private Integer quantity;
+    private StockMovementType type;
+    private Long orderId;
+    private LocalDateTime createdAt;
+}
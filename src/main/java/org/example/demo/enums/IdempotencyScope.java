@@ -0,0 +1,7 @@
+package org.example.demo.enums;
+
+// Endpoint an Idempotency-Key was sent to; the same key may be used once per scope
+public enum IdempotencyScope {
+    CREATE_ORDER,
+    ADD_PAYMENT
+}
@@ -0,0 +1,9 @@
+package org.example.demo.enums;
+
+public enum OrderImportStatus {
+    CREATED,
+    // Stored as a REJECTED order (not enough stock)
+    REJECTED,
+    // Nothing stored: unreadable record, validation error or rolled back chunk
+    FAILED
+}
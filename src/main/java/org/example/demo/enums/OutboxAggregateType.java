@@ -0,0 +1,6 @@
+package org.example.demo.enums;
+
+public enum OutboxAggregateType {
+    ORDER,
+    PAYMENT
+}
@@ -0,0 +1,9 @@
+package org.example.demo.enums;
+
+public enum OutboxEventType {
+    ORDER_CONFIRMED,
+    ORDER_CANCELED,
+    ORDER_REJECTED,
+    PAYMENT_CASHED,
+    PAYMENT_REJECTED
+}
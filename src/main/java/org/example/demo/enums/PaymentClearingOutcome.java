@@ -0,0 +1,14 @@
+package org.example.demo.enums;
+
+public enum PaymentClearingOutcome {
+    // No pending cheque or transfer carries this reference
+    UNMATCHED,
+    // The reference exists but the bank name or the amount differs
+    MISMATCH,
+    // Matched, but the payment was cashed or rejected by someone else before the batch applied it
+    ALREADY_PROCESSED,
+    // Unreadable line
+    INVALID,
+    // Nothing applied: the chunk was rolled back
+    FAILED
+}
@@ -0,0 +1,8 @@
+package org.example.demo.enums;
+
+public enum SalesDimension {
+    DAY,
+    PRODUCT,
+    TIER,
+    STATUS
+}
@@ -0,0 +1,12 @@
+package org.example.demo.enums;
+
+public enum StockMovementType {
+    // Stock taken by a new order
+    ORDER_RESERVE,
+    // Stock given back when a pending order is canceled
+    CANCEL_RELEASE,
+    // Stock given back when a pending order is rejected
+    REJECT_RELEASE,
+    // Manual correction from the product API
+    ADJUSTMENT
+}
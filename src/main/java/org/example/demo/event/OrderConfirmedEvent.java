@@ -0,0 +1,8 @@
+package org.example.demo.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Published by OrderService.confirmOrder; recorded as a pending client statistics delta in the same transaction
+public record OrderConfirmedEvent(Long orderId, Long clientId, BigDecimal total, LocalDateTime orderDate) {
+}
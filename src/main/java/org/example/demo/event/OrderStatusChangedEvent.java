@@ -0,0 +1,36 @@
+package org.example.demo.event;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.model.Order;
+import org.example.demo.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Published by OrderService whenever an order is created (previousStatus null) or changes status;
+// sales rollups are derived from it after commit
+public record OrderStatusChangedEvent(Long orderId,
+                                      LocalDateTime orderDate,
+                                      CustomerTier tier,
+                                      OrderStatus previousStatus,
+                                      OrderStatus status,
+                                      BigDecimal subtotal,
+                                      BigDecimal discount,
+                                      BigDecimal total,
+                                      List<Line> lines) {
+
+    public record Line(Long productId, int quantity, BigDecimal revenue) {
+    }
+
+    public static OrderStatusChangedEvent of(Order order, OrderStatus previousStatus) {
+        List<OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : List.of();
+        List<Line> lines = items.stream()
+                .map(item -> new Line(item.getProduct().getId(), item.getQuantity(), item.getTotalPrice()))
+                .toList();
+        CustomerTier tier = order.getCustomerTier() != null ? order.getCustomerTier() : order.getClient().getFidelityLevel();
+        return new OrderStatusChangedEvent(order.getId(), order.getOrderDate(), tier, previousStatus, order.getStatus(),
+                order.getSubtotal(), order.getDiscount(), order.getTotal(), lines);
+    }
+}
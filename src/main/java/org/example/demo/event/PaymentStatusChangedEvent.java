@@ -0,0 +1,26 @@
+package org.example.demo.event;
+
+import org.example.demo.enums.PaymentStatus;
+import org.example.demo.enums.PaymentType;
+import org.example.demo.model.Payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// A payment was cashed or bounced; written to the outbox for accounting.
+// previousStatus is null for cash, which is cashed as it is taken.
+public record PaymentStatusChangedEvent(Long paymentId,
+                                        Long orderId,
+                                        Integer paymentNumber,
+                                        BigDecimal amount,
+                                        PaymentType paymentType,
+                                        PaymentStatus previousStatus,
+                                        PaymentStatus status,
+                                        LocalDate cashDate) {
+
+    public static PaymentStatusChangedEvent of(Payment payment, PaymentStatus previousStatus) {
+        return new PaymentStatusChangedEvent(payment.getId(), payment.getOrder().getId(), payment.getPaymentNumber(),
+                payment.getAmount(), payment.getPaymentType(), previousStatus, payment.getStatus(),
+                payment.getCashDate());
+    }
+}
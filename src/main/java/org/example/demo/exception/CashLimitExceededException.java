@@ -0,0 +1,7 @@
+package org.example.demo.exception;
+
+public class CashLimitExceededException extends InvalidOrderException {
+    public CashLimitExceededException(String message) {
+        super(message);
+    }
+}
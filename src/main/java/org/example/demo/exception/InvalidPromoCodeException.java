@@ -0,0 +1,7 @@
+package org.example.demo.exception;
+
+public class InvalidPromoCodeException extends InvalidOrderException {
+    public InvalidPromoCodeException(String message) {
+        super(message);
+    }
+}
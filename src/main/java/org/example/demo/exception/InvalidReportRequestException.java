@@ -0,0 +1,11 @@
+package org.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidReportRequestException extends RuntimeException {
+    public InvalidReportRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.demo.importer;
+
+import org.example.demo.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One line of a bank reconciliation file; error is set instead of the values when the line could not be read
+public record ClearingLine(int lineNumber,
+                           String reference,
+                           String bankName,
+                           BigDecimal amount,
+                           PaymentStatus status,
+                           LocalDate date,
+                           String error) {
+
+    static ClearingLine of(int lineNumber, String reference, String bankName, BigDecimal amount,
+                           PaymentStatus status, LocalDate date) {
+        return new ClearingLine(lineNumber, reference, bankName, amount, status, date, null);
+    }
+
+    static ClearingLine unreadable(int lineNumber, String reference, String error) {
+        return new ClearingLine(lineNumber, reference, null, null, null, null, error);
+    }
+}
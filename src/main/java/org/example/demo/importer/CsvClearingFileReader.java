@@ -0,0 +1,87 @@
+package org.example.demo.importer;
+
+import org.example.demo.enums.PaymentStatus;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+// Bank reconciliation file, one cleared or bounced cheque/transfer per row, with a header:
+//   reference,bankName,amount,status,date
+// status is CASHED or REJECTED; date (yyyy-MM-dd) is the cash date and may be empty.
+// Fields are plain comma-separated values (no quoting).
+public class CsvClearingFileReader implements Closeable {
+
+    private static final String HEADER = "reference,bankName,amount,status,date";
+
+    private final BufferedReader reader;
+    private int lineNumber;
+
+    public CsvClearingFileReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        lineNumber = 1;
+        if (header == null || !header.strip().replace(" ", "").equalsIgnoreCase(HEADER)) {
+            throw new IOException("CSV header must be: " + HEADER);
+        }
+    }
+
+    // Next line, or null at the end of the file
+    public ClearingLine next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            return null;
+        }
+
+        String[] fields = new String[5];
+        String[] parts = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = i < parts.length ? parts[i].strip() : "";
+        }
+
+        String reference = fields[0];
+        if (reference.isEmpty()) {
+            return ClearingLine.unreadable(lineNumber, null, "Missing reference");
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(fields[2]);
+        } catch (NumberFormatException e) {
+            return ClearingLine.unreadable(lineNumber, reference, "Invalid amount '" + fields[2] + "'");
+        }
+        PaymentStatus status;
+        try {
+            status = PaymentStatus.valueOf(fields[3].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            status = null;
+        }
+        if (status != PaymentStatus.CASHED && status != PaymentStatus.REJECTED) {
+            return ClearingLine.unreadable(lineNumber, reference, "Status must be CASHED or REJECTED, got '" + fields[3] + "'");
+        }
+        LocalDate date = null;
+        if (!fields[4].isEmpty()) {
+            try {
+                date = LocalDate.parse(fields[4]);
+            } catch (DateTimeParseException e) {
+                return ClearingLine.unreadable(lineNumber, reference, "Invalid date '" + fields[4] + "'");
+            }
+        }
+        return ClearingLine.of(lineNumber, reference, fields[1], amount, status, date);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.demo.importer;
+
+import org.example.demo.dto.request.OrderItemRequestDTO;
+import org.example.demo.dto.request.OrderRequestDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Objects;
+
+// One order line per row, with a header:
+//   reference,clientId,productId,quantity,promoCode
+// Consecutive rows sharing a reference form one order; clientId and promoCode come from its first row.
+// Fields are plain comma-separated values (no quoting).
+public class CsvOrderImportReader implements OrderImportReader {
+
+    private static final String HEADER = "reference,clientId,productId,quantity,promoCode";
+
+    private final BufferedReader reader;
+    private String[] pending;
+    private int lineNumber;
+    private int index;
+
+    public CsvOrderImportReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        lineNumber = 1;
+        if (header == null || !header.strip().replace(" ", "").equalsIgnoreCase(HEADER)) {
+            throw new IOException("CSV header must be: " + HEADER);
+        }
+        pending = readRow();
+    }
+
+    @Override
+    public ImportedOrder next() throws IOException {
+        if (pending == null) {
+            return null;
+        }
+
+        index++;
+        String[] first = pending;
+        String reference = first[0];
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setOrderItems(new ArrayList<>());
+        String error = null;
+        try {
+            request.setClientId(parseLong(first[1]));
+            request.setPromoCode(first[4].isEmpty() ? null : first[4]);
+        } catch (NumberFormatException e) {
+            error = "Line " + lineNumber + ": invalid clientId '" + first[1] + "'";
+        }
+
+        String[] row = first;
+        while (row != null && Objects.equals(row[0], reference)) {
+            if (error == null) {
+                try {
+                    request.getOrderItems().add(new OrderItemRequestDTO(parseLong(row[2]), parseInteger(row[3])));
+                } catch (NumberFormatException e) {
+                    error = "Line " + lineNumber + ": invalid productId or quantity";
+                }
+            }
+            row = readRow();
+            // Without a reference every row is its own order
+            if (reference.isEmpty()) {
+                break;
+            }
+        }
+        pending = row;
+
+        String ref = reference.isEmpty() ? null : reference;
+        return error == null ? ImportedOrder.of(index, ref, request) : ImportedOrder.unreadable(index, ref, error);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Next non-blank row padded to five columns, or null at the end of the file
+    private String[] readRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            return null;
+        }
+
+        String[] fields = new String[5];
+        String[] parts = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = i < parts.length ? parts[i].strip() : "";
+        }
+        return fields;
+    }
+
+    private static Long parseLong(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+
+    private static Integer parseInteger(String value) {
+        return value.isEmpty() ? null : Integer.valueOf(value);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.demo.importer;
+
+import org.example.demo.dto.request.OrderRequestDTO;
+
+// One order read from an import file; error is set instead of request when the record could not be read
+public record ImportedOrder(int index, String reference, OrderRequestDTO request, String error) {
+
+    static ImportedOrder of(int index, String reference, OrderRequestDTO request) {
+        return new ImportedOrder(index, reference, request, null);
+    }
+
+    static ImportedOrder unreadable(int index, String reference, String error) {
+        return new ImportedOrder(index, reference, null, error);
+    }
+}
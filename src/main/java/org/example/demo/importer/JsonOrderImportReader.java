@@ -0,0 +1,62 @@
+package org.example.demo.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.demo.dto.request.OrderRequestDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads either a JSON array of orders or newline-delimited JSON (one order object per line).
+// Each object has the OrderRequestDTO fields plus an optional "reference".
+public class JsonOrderImportReader implements OrderImportReader {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean started;
+    private boolean inArray;
+    private int index;
+
+    public JsonOrderImportReader(ObjectMapper objectMapper, InputStream in) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(in);
+    }
+
+    @Override
+    public ImportedOrder next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                inArray = true;
+                token = parser.nextToken();
+            }
+        }
+        if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+
+        index++;
+        // Read the object as a tree first so a badly typed field only fails this order, not the stream
+        JsonNode node = parser.readValueAsTree();
+        if (node == null || !node.isObject()) {
+            return ImportedOrder.unreadable(index, null, "Expected an order object");
+        }
+        JsonNode referenceNode = ((ObjectNode) node).remove("reference");
+        String reference = referenceNode != null && !referenceNode.isNull() ? referenceNode.asText() : null;
+        try {
+            return ImportedOrder.of(index, reference, objectMapper.treeToValue(node, OrderRequestDTO.class));
+        } catch (JsonProcessingException e) {
+            return ImportedOrder.unreadable(index, reference, "Unreadable order: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
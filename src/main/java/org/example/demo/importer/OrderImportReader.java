@@ -0,0 +1,11 @@
+package org.example.demo.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Pulls orders one at a time from an import stream, so only the current order is held in memory
+public interface OrderImportReader extends Closeable {
+
+    // Next order, or null at the end of the stream
+    ImportedOrder next() throws IOException;
+}
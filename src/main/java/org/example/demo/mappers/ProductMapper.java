@@ -3,7 +3,9 @@ package org.example.demo.mappers;
 import org.example.demo.dto.request.ProductRequestDTO;
 import org.example.demo.dto.request.ProductRequestUpdateDTO;
 import org.example.demo.dto.response.ProductResponseDTO;
+import org.example.demo.dto.response.StockMovementResponseDTO;
 import org.example.demo.model.Product;
+import org.example.demo.model.StockMovement;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -18,13 +20,14 @@ public class ProductMapper {
         return product;
     }
 
-    public ProductResponseDTO toResponse(Product product) {
+    // availableStock: snapshot plus unfolded ledger movements, see StockReservationService
+    public ProductResponseDTO toResponse(Product product, int availableStock) {
         ProductResponseDTO res = new ProductResponseDTO();
         res.setId(product.getId());
         res.setName(product.getName());
         res.setDescription(product.getDescription());
         res.setUnitPrice(product.getUnitPrice());
-        res.setStockQuantity(product.getStockQuantity());
+        res.setStockQuantity(availableStock);
         res.setDeleted(product.getIsDeleted());
         return res;
     }
@@ -39,8 +42,11 @@ public class ProductMapper {
         if (req.getUnitPrice() != null) {
             product.setUnitPrice(req.getUnitPrice());
         }
-        if (req.getStockQuantity() != null) {
-            product.setStockQuantity(req.getStockQuantity());
-        }
+        // stockQuantity is booked as a ledger adjustment by ProductService
+    }
+
+    public StockMovementResponseDTO toResponse(StockMovement movement) {
+        return new StockMovementResponseDTO(movement.getId(), movement.getQuantity(), movement.getType(),
+                movement.getOrderId(), movement.getCreatedAt());
     }
 }
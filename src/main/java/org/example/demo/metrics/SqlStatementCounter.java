@@ -0,0 +1,24 @@
+package org.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registered with Hibernate through hibernate.session_factory.statement_inspector.
+// Counts the SQL statements prepared on the current thread, i.e. for the request being served.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.demo.migration;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Schema changes that ddl-auto=update cannot make: it adds tables and columns but never drops or relaxes
+// one. Runs at startup once Hibernate has updated the schema, before the application takes requests.
+// Each step checks whether it is still needed, so running it again on a migrated database does nothing.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrations {
+
+    // Tables whose ids came from identity columns before they moved to a pooled <table>_seq sequence
+    private static final List<String> SEQUENCED_TABLES =
+            List.of("clients", "orders", "order_items", "payments", "products", "users");
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SchemaMigrations(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        dropClientsTotalSpent();
+        SEQUENCED_TABLES.forEach(this::advanceIdSequence);
+    }
+
+    // clients.total_spent (floating point, NOT NULL, no default) was replaced by total_spent_cents. Hibernate
+    // no longer writes it, so every client insert fails while it exists. The cents are filled from it first,
+    // so tiers and statistics read sensible values until POST /api/clients/statistics/rebuild makes them exact.
+    private void dropClientsTotalSpent() {
+        if (!columnExists("clients", "total_spent")) {
+            return;
+        }
+        int filled = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update("UPDATE clients "
+                    + "SET total_spent_cents = CAST(ROUND(CAST(total_spent AS DECIMAL(19, 4)) * 100) AS BIGINT) "
+                    + "WHERE total_spent IS NOT NULL AND total_spent_cents = 0");
+            jdbcTemplate.execute("ALTER TABLE clients DROP COLUMN total_spent");
+            return updated;
+        });
+        log.info("Dropped clients.total_spent after copying it into total_spent_cents for {} clients", filled);
+    }
+
+    // On a database created before the switch from identity columns the sequence starts at 1 while the table
+    // already holds ids, so the first inserts would collide. A sequence value v hands out the ids v - 49..v, so
+    // the sequence is behind while its next value is within a block of MAX(id). It is moved forward by raising
+    // its increment for one nextval, never set back, so a node that starts at the same time and already
+    // allocates from it cannot be handed a block twice. The check costs one block of ids per start.
+    private void advanceIdSequence(String table) {
+        String sequence = table + "_seq";
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId == null || maxId <= 0) {
+            return;
+        }
+        long next = nextValue(sequence);
+        if (next - ID_ALLOCATION_SIZE >= maxId) {
+            return;
+        }
+        long jump = maxId + ID_ALLOCATION_SIZE - next;
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + jump);
+            nextValue(sequence);
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+        });
+        log.info("Advanced {} past the existing ids of {} (max id {})", sequence, table, maxId);
+    }
+
+    private long nextValue(String sequence) {
+        Long value = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+        return value == null ? 0 : value;
+    }
+
+    // Table and column names are lower case on PostgreSQL and upper case on H2
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) = ? AND LOWER(column_name) = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
@@ -3,7 +3,10 @@ package org.example.demo.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.example.demo.enums.CustomerTier;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Entity
@@ -16,7 +19,8 @@ import java.time.LocalDateTime;
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_seq")
+    @SequenceGenerator(name = "clients_seq", sequenceName = "clients_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -40,9 +44,11 @@ public class Client {
     @Builder.Default
     private Integer totalOrders = 0;
 
+    // Exact amount spent on confirmed orders, in cents
     @Column(nullable = false)
+    @ColumnDefault("0")
     @Builder.Default
-    private Double totalSpent = 0.0;
+    private Long totalSpentCents = 0L;
 
     @Builder.Default
     private Boolean isActive = true;
@@ -53,4 +59,16 @@ public class Client {
 
     @OneToMany(mappedBy = "client", cascade = CascadeType.ALL)
     private java.util.List<Order> orders;
+
+    public BigDecimal getTotalSpent() {
+        return BigDecimal.valueOf(totalSpentCents, 2);
+    }
+
+    public void setTotalSpent(BigDecimal totalSpent) {
+        this.totalSpentCents = toCents(totalSpent);
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
 }
@@ -0,0 +1,33 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One confirmed order not yet applied to its client's statistics. Written in the confirming transaction
+// and deleted by ClientStatsAggregator in the transaction that applies it.
+@Entity
+@Table(name = "client_stats_deltas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClientStatsDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_stats_deltas_seq")
+    @SequenceGenerator(name = "client_stats_deltas_seq", sequenceName = "client_stats_deltas_seq", allocationSize = 50)
+    private Long id;
+
+    // Plain id instead of an association: recording a confirmation never loads the client
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "spent_cents", nullable = false)
+    private Long spentCents;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+}
@@ -0,0 +1,47 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.IdempotencyScope;
+
+import java.time.LocalDateTime;
+
+// Response of a request sent with an Idempotency-Key, stored in the transaction that produced it
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_idempotency_keys_scope_key", columnNames = {"scope", "idempotency_key"})
+        },
+        indexes = {
+                @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private IdempotencyScope scope;
+
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body, so a key reused for a different request is refused
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // Response body (JSON) returned to every retry
+    @Column(nullable = false, length = 1000000)
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
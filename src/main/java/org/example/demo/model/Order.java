@@ -2,14 +2,18 @@ package org.example.demo.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.demo.enums.CustomerTier;
 import org.example.demo.enums.OrderStatus;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_client_date_id", columnList = "client_id, order_date DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,7 +22,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -45,10 +50,20 @@ public class Order {
 
     private String promoCode;
 
+    // Client tier the order was priced with; null for orders placed before it was recorded
+    @Enumerated(EnumType.STRING)
+    private CustomerTier customerTier;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
 
     @Column(nullable = false)
     private BigDecimal remainingAmount;
+
+    // Optimistic lock; the bulk updates in OrderRepository increment it as well
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
 }
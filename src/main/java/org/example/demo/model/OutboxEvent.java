@@ -0,0 +1,58 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.enums.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+// Event for downstream systems, written in the transaction of the state change it describes and
+// delivered afterwards by OutboxRelay. publishedAt stays null until the sink has accepted it.
+@Entity
+@Table(name = "outbox_events",
+        indexes = {
+                @Index(name = "idx_outbox_events_published_at", columnList = "published_at, id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // Delivery follows id order, so ids must follow the order events are written in: a pooled
+    // block of ids per node would let a later event on one node get a lower id than an earlier one
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxAggregateType aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 64)
+    private OutboxEventType eventType;
+
+    // Event body (JSON)
+    @Column(nullable = false, length = 1000000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(length = 1000)
+    private String lastError;
+}
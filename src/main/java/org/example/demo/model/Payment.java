@@ -4,13 +4,17 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.example.demo.enums.PaymentStatus;
 import org.example.demo.enums.PaymentType;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", uniqueConstraints = {
+        // Two concurrent postings can read the same last number; the loser is retried
+        @UniqueConstraint(name = "uk_payments_order_number", columnNames = {"order_id", "payment_number"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,10 +23,11 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
@@ -50,4 +55,9 @@ public class Payment {
     private String bankName;
 
     private LocalDate dueDate;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
 }
@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,8 +28,9 @@ public class Product {
     @Column(nullable = false)
     private BigDecimal unitPrice;
 
-    
-    @Column(nullable = false)
+    // Stock snapshot: opening stock plus the stock_movements folded by StockSnapshotJob.
+    // Availability is this plus the unfolded movements; entity saves never write it.
+    @Column(nullable = false, updatable = false)
     private Integer stockQuantity;
 
     @Builder.Default
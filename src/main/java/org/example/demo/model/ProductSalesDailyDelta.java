@@ -0,0 +1,50 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Change to one sales_daily_products bucket not yet applied to it; see SalesDailyDelta
+@Entity
+@Table(name = "sales_daily_product_deltas", indexes = {
+        @Index(name = "idx_sales_daily_product_deltas_date", columnList = "sales_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesDailyDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_daily_product_deltas_seq")
+    @SequenceGenerator(name = "sales_daily_product_deltas_seq", sequenceName = "sales_daily_product_deltas_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerTier tier;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private Long lines;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+}
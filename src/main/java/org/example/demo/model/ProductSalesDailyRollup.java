@@ -0,0 +1,52 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Order line totals per order day, product, client tier and order status; maintained by SalesRollupAggregator.
+// revenue is the sum of line totals, before order-level discounts and VAT.
+@Entity
+@Table(name = "sales_daily_products", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_daily_products", columnNames = {"sales_date", "product_id", "tier", "status"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_daily_products_seq")
+    @SequenceGenerator(name = "sales_daily_products_seq", sequenceName = "sales_daily_products_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerTier tier;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    // Number of order lines
+    @Column(nullable = false)
+    private Long lines;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,52 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Change to one sales_daily bucket not yet applied to it. Written in the transaction of the order status
+// change and deleted by SalesRollupAggregator in the transaction that applies it.
+@Entity
+@Table(name = "sales_daily_deltas", indexes = {
+        @Index(name = "idx_sales_daily_deltas_date", columnList = "sales_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_daily_deltas_seq")
+    @SequenceGenerator(name = "sales_daily_deltas_seq", sequenceName = "sales_daily_deltas_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerTier tier;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    // Signed: -1 when the order leaves the bucket, 1 when it enters it
+    @Column(nullable = false)
+    private Long orders;
+
+    @Column(nullable = false)
+    private BigDecimal subtotal;
+
+    @Column(nullable = false)
+    private BigDecimal discount;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+}
@@ -0,0 +1,50 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Order totals per order day, client tier and order status; maintained by SalesRollupAggregator
+@Entity
+@Table(name = "sales_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_daily", columnNames = {"sales_date", "tier", "status"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_daily_seq")
+    @SequenceGenerator(name = "sales_daily_seq", sequenceName = "sales_daily_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerTier tier;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private Long orders;
+
+    @Column(nullable = false)
+    private BigDecimal subtotal;
+
+    @Column(nullable = false)
+    private BigDecimal discount;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+}
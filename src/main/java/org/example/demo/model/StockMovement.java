@@ -0,0 +1,49 @@
+package org.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.demo.enums.StockMovementType;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+// Append-only stock ledger. Rows are never updated, except for the folded flag set by the snapshot job
+// once the quantity has been added to products.stock_quantity.
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_product_folded", columnList = "product_id, folded")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
+    private Long id;
+
+    // Plain id instead of an association: appending a movement never loads the product
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Signed: negative when stock leaves, positive when it comes back
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockMovementType type;
+
+    private Long orderId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean folded = false;
+}
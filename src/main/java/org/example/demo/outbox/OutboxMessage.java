@@ -0,0 +1,22 @@
+package org.example.demo.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.enums.OutboxEventType;
+import org.example.demo.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+// What a sink receives; id is unique per event, so consumers can drop redeliveries
+public record OutboxMessage(Long id,
+                            OutboxAggregateType aggregateType,
+                            Long aggregateId,
+                            OutboxEventType eventType,
+                            LocalDateTime createdAt,
+                            @JsonRawValue String payload) {
+
+    public static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getCreatedAt(), event.getPayload());
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.demo.outbox;
+
+// Destination of the outbox events. deliver is called from several relay threads at once, but never
+// concurrently for two events of the same aggregate; those arrive one after the other, in order.
+// An event counts as delivered once flush has returned after it.
+public interface OutboxSink {
+
+    void deliver(OutboxMessage message) throws Exception;
+
+    default void flush() throws Exception {
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.demo.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Confirmed-order totals of one client, as aggregated by OrderRepository.streamConfirmedTotalsByClient
+public interface ClientOrderTotals {
+
+    Long getClientId();
+
+    Long getOrders();
+
+    BigDecimal getTotal();
+
+    LocalDateTime getFirstOrderDate();
+
+    LocalDateTime getLastOrderDate();
+}
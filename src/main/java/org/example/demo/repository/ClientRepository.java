@@ -1,14 +1,100 @@
 package org.example.demo.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.demo.enums.CustomerTier;
 import org.example.demo.model.Client;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Null filters match every client
+    @Query("SELECT c FROM Client c WHERE (:tier IS NULL OR c.fidelityLevel = :tier)"
+            + " AND (:active IS NULL OR c.isActive = :active)")
+    Page<Client> findByFilters(@Param("tier") CustomerTier tier,
+                               @Param("active") Boolean active,
+                               Pageable pageable);
+
+    @Query("SELECT c FROM Client c WHERE c.id > :afterId"
+            + " AND (:tier IS NULL OR c.fidelityLevel = :tier)"
+            + " AND (:active IS NULL OR c.isActive = :active)"
+            + " ORDER BY c.id")
+    List<Client> findByFiltersAfter(@Param("afterId") Long afterId,
+                                    @Param("tier") CustomerTier tier,
+                                    @Param("active") Boolean active,
+                                    Pageable pageable);
+
+    // Rows are pulled from a server-side cursor in chunks of 500; the caller must hold a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Client c WHERE (:tier IS NULL OR c.fidelityLevel = :tier)"
+            + " AND (:active IS NULL OR c.isActive = :active)"
+            + " ORDER BY c.id")
+    Stream<Client> streamByFilters(@Param("tier") CustomerTier tier,
+                                   @Param("active") Boolean active);
+
+    // Loyalty tier from order count or amount spent, whichever reaches the higher tier
+    String TIER_FROM_STATS = "CASE"
+            + " WHEN c.totalOrders >= 20 OR c.totalSpentCents >= 1500000 THEN org.example.demo.enums.CustomerTier.PLATINUM"
+            + " WHEN c.totalOrders >= 10 OR c.totalSpentCents >= 500000 THEN org.example.demo.enums.CustomerTier.GOLD"
+            + " WHEN c.totalOrders >= 3 OR c.totalSpentCents >= 100000 THEN org.example.demo.enums.CustomerTier.SILVER"
+            + " ELSE org.example.demo.enums.CustomerTier.BASIC END";
+
+    // Adds the confirmed orders of one flush to the running statistics in a single statement
+    @Modifying
+    @Query("UPDATE Client c SET c.totalOrders = c.totalOrders + :orders,"
+            + " c.totalSpentCents = c.totalSpentCents + :spentCents,"
+            + " c.firstOrderDate = COALESCE(c.firstOrderDate, :firstOrderDate),"
+            + " c.lastOrderDate = CASE WHEN c.lastOrderDate IS NULL OR c.lastOrderDate < :lastOrderDate"
+            + " THEN :lastOrderDate ELSE c.lastOrderDate END"
+            + " WHERE c.id = :id")
+    int addOrderStats(@Param("id") Long id,
+                      @Param("orders") int orders,
+                      @Param("spentCents") long spentCents,
+                      @Param("firstOrderDate") LocalDateTime firstOrderDate,
+                      @Param("lastOrderDate") LocalDateTime lastOrderDate);
+
+    @Modifying
+    @Query("UPDATE Client c SET c.fidelityLevel = " + TIER_FROM_STATS + " WHERE c.id IN :ids")
+    int recalculateTiers(@Param("ids") Collection<Long> ids);
+
+    // Statistics rebuild: clear everything, set the recomputed values per client, then the tiers
+    @Modifying
+    @Query("UPDATE Client c SET c.totalOrders = 0, c.totalSpentCents = 0, c.firstOrderDate = NULL, c.lastOrderDate = NULL")
+    int resetOrderStats();
+
+    @Modifying
+    @Query("UPDATE Client c SET c.totalOrders = :orders, c.totalSpentCents = :spentCents,"
+            + " c.firstOrderDate = :firstOrderDate, c.lastOrderDate = :lastOrderDate"
+            + " WHERE c.id = :id")
+    int setOrderStats(@Param("id") Long id,
+                      @Param("orders") int orders,
+                      @Param("spentCents") long spentCents,
+                      @Param("firstOrderDate") LocalDateTime firstOrderDate,
+                      @Param("lastOrderDate") LocalDateTime lastOrderDate);
+
+    @Modifying
+    @Query("UPDATE Client c SET c.fidelityLevel = " + TIER_FROM_STATS)
+    int recalculateAllTiers();
 }
@@ -0,0 +1,27 @@
+package org.example.demo.repository;
+
+import org.example.demo.model.ClientStatsDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ClientStatsDeltaRepository extends JpaRepository<ClientStatsDelta, Long> {
+
+    List<ClientStatsDelta> findAllByOrderByIdAsc(Pageable pageable);
+
+    // Returns how many of the deltas were still there; rows another transaction deleted first are skipped
+    @Modifying
+    @Query("DELETE FROM ClientStatsDelta d WHERE d.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ClientStatsDelta d")
+    int deleteAllPending();
+}
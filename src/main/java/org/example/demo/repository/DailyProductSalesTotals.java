@@ -0,0 +1,17 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Order line totals of one day, product, tier and status, as aggregated by OrderItemRepository
+public record DailyProductSalesTotals(LocalDate salesDate,
+                                      Long productId,
+                                      CustomerTier tier,
+                                      OrderStatus status,
+                                      Long lines,
+                                      Long quantity,
+                                      BigDecimal revenue) {
+}
@@ -0,0 +1,17 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Order totals of one day, tier and status, as aggregated from the orders table by OrderRepository
+public record DailySalesTotals(LocalDate salesDate,
+                               CustomerTier tier,
+                               OrderStatus status,
+                               Long orders,
+                               BigDecimal subtotal,
+                               BigDecimal discount,
+                               BigDecimal total) {
+}
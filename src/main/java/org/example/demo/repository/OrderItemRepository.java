@@ -2,8 +2,22 @@ package org.example.demo.repository;
 
 import org.example.demo.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Source of the sales_daily_products rollup for one date range (to exclusive)
+    @Query("SELECT new org.example.demo.repository.DailyProductSalesTotals(CAST(o.orderDate AS LocalDate), i.product.id,"
+            + " COALESCE(o.customerTier, c.fidelityLevel), o.status, COUNT(i), SUM(i.quantity), SUM(i.totalPrice))"
+            + " FROM OrderItem i JOIN i.order o JOIN o.client c"
+            + " WHERE o.orderDate >= :from AND o.orderDate < :to"
+            + " GROUP BY CAST(o.orderDate AS LocalDate), i.product.id, COALESCE(o.customerTier, c.fidelityLevel), o.status")
+    List<DailyProductSalesTotals> aggregateDailyProductSales(@Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,18 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+// Payment ledger of one order, as computed by PaymentRepository.findSummaryByOrderId
+public record OrderPaymentSummary(Long orderId,
+                                  OrderStatus orderStatus,
+                                  BigDecimal remainingAmount,
+                                  Integer lastPaymentNumber,
+                                  BigDecimal cashedTotal,
+                                  BigDecimal pendingTotal) {
+
+    public int nextPaymentNumber() {
+        return lastPaymentNumber + 1;
+    }
+}
@@ -1,13 +1,82 @@
 package org.example.demo.repository;
 
-import org.example.demo.model.Client;
+import jakarta.persistence.QueryHint;
+import org.example.demo.enums.OrderStatus;
 import org.example.demo.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByClientOrderByOrderDateDesc(Client client);
+    // Keyset pagination over (orderDate, id), served by idx_orders_client_date_id.
+    // Only ids are paged: limiting a query that fetch-joins orderItems would be applied in memory.
+    @Query("SELECT o.id FROM Order o WHERE o.client.id = :clientId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findFirstIdsByClient(@Param("clientId") Long clientId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.client.id = :clientId"
+            + " AND (o.orderDate < :cursorDate OR (o.orderDate = :cursorDate AND o.id < :cursorId))"
+            + " ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findIdsByClientBefore(@Param("clientId") Long clientId,
+                                     @Param("cursorDate") LocalDateTime cursorDate,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+
+    // Fetches items and their products in the same query so mapping to OrderResponseDTO needs no lazy loads
+    @EntityGraph(attributePaths = {"client", "orderItems", "orderItems.product"})
+    List<Order> findByIdInOrderByOrderDateDescIdDesc(Collection<Long> ids);
+
+    // One row per client with confirmed orders, read through a cursor; the caller must hold a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.client.id AS clientId, COUNT(o) AS orders, SUM(o.total) AS total,"
+            + " MIN(o.orderDate) AS firstOrderDate, MAX(o.orderDate) AS lastOrderDate"
+            + " FROM Order o WHERE o.status = org.example.demo.enums.OrderStatus.CONFIRMED"
+            + " GROUP BY o.client.id ORDER BY o.client.id")
+    Stream<ClientOrderTotals> streamConfirmedTotalsByClient();
+
+    // Conditional: returns 0 when the amount is more than what is left to pay, or when the order
+    // has left PENDING (confirmed, canceled or rejected) since the caller read it
+    @Modifying
+    @Query("UPDATE Order o SET o.remainingAmount = o.remainingAmount - CAST(:amount AS BigDecimal),"
+            + " o.version = o.version + 1"
+            + " WHERE o.id = :id AND o.remainingAmount >= :amount"
+            + " AND o.status = org.example.demo.enums.OrderStatus.PENDING")
+    int deductRemainingAmount(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.remainingAmount = o.remainingAmount + CAST(:amount AS BigDecimal),"
+            + " o.version = o.version + 1 WHERE o.id = :id")
+    int restoreRemainingAmount(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT o.remainingAmount FROM Order o WHERE o.id = :id")
+    BigDecimal findRemainingAmountById(@Param("id") Long id);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    OrderStatus findStatusById(@Param("id") Long id);
+
+    // Source of the sales_daily rollup for one date range (to exclusive); tier falls back to the client's
+    // current tier for orders placed before the order recorded it
+    @Query("SELECT new org.example.demo.repository.DailySalesTotals(CAST(o.orderDate AS LocalDate),"
+            + " COALESCE(o.customerTier, c.fidelityLevel), o.status, COUNT(o), SUM(o.subtotal), SUM(o.discount), SUM(o.total))"
+            + " FROM Order o JOIN o.client c"
+            + " WHERE o.orderDate >= :from AND o.orderDate < :to"
+            + " GROUP BY CAST(o.orderDate AS LocalDate), COALESCE(o.customerTier, c.fidelityLevel), o.status")
+    List<DailySalesTotals> aggregateDailySales(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
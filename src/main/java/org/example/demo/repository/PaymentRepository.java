@@ -3,12 +3,31 @@ package org.example.demo.repository;
 import org.example.demo.model.Order;
 import org.example.demo.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByOrderOrderByPaymentNumberAsc(Order order);
-    long countByOrder(Order order);
+
+    // Order status, remaining amount and payment totals in one round trip, however many installments exist
+    @Query("SELECT new org.example.demo.repository.OrderPaymentSummary(o.id, o.status, o.remainingAmount,"
+            + " COALESCE(MAX(p.paymentNumber), 0),"
+            + " COALESCE(SUM(CASE WHEN p.status = org.example.demo.enums.PaymentStatus.CASHED THEN p.amount END), 0.00BD),"
+            + " COALESCE(SUM(CASE WHEN p.status = org.example.demo.enums.PaymentStatus.PENDING THEN p.amount END), 0.00BD))"
+            + " FROM Order o LEFT JOIN Payment p ON p.order = o"
+            + " WHERE o.id = :orderId"
+            + " GROUP BY o.id, o.status, o.remainingAmount")
+    Optional<OrderPaymentSummary> findSummaryByOrderId(@Param("orderId") Long orderId);
+
+    // Matching fields only, without the entities, for the clearing batch's in-memory index
+    @Query("SELECT new org.example.demo.repository.PendingPaymentRef(p.id, p.reference, p.bankName, p.amount)"
+            + " FROM Payment p"
+            + " WHERE p.status = org.example.demo.enums.PaymentStatus.PENDING AND p.reference IS NOT NULL"
+            + " AND p.paymentType IN (org.example.demo.enums.PaymentType.CHECK, org.example.demo.enums.PaymentType.TRANSFER)")
+    List<PendingPaymentRef> findPendingBankPayments();
 }
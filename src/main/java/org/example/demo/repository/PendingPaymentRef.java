@@ -0,0 +1,7 @@
+package org.example.demo.repository;
+
+import java.math.BigDecimal;
+
+// Matching fields of a pending cheque or transfer, as loaded by PaymentRepository.findPendingBankPayments
+public record PendingPaymentRef(Long id, String reference, String bankName, BigDecimal amount) {
+}
@@ -1,12 +1,24 @@
 package org.example.demo.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.demo.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -15,4 +27,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsByName(String name);
     
     Page<Product> findByIsDeletedFalse(Pageable pageable);
+
+    // Row locks in id order, so concurrent reservations of overlapping products cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity WHERE p.id = :id")
+    int addToStockSnapshot(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Search index source, read through a cursor so the whole catalog is never held as entities;
+    // the caller must hold a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new org.example.demo.repository.ProductSearchDocument(p.id, p.name, p.description)"
+            + " FROM Product p WHERE p.isDeleted = false ORDER BY p.id")
+    Stream<ProductSearchDocument> streamSearchDocuments();
 }
@@ -0,0 +1,45 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.model.ProductSalesDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductSalesDailyRollupRepository extends JpaRepository<ProductSalesDailyRollup, Long> {
+
+    // Returns 0 when the bucket has no row yet
+    @Modifying
+    @Query("UPDATE ProductSalesDailyRollup r SET r.lines = r.lines + :lines, r.quantity = r.quantity + :quantity,"
+            + " r.revenue = r.revenue + CAST(:revenue AS BigDecimal)"
+            + " WHERE r.salesDate = :salesDate AND r.productId = :productId AND r.tier = :tier AND r.status = :status")
+    int addTotals(@Param("salesDate") LocalDate salesDate,
+                  @Param("productId") Long productId,
+                  @Param("tier") CustomerTier tier,
+                  @Param("status") OrderStatus status,
+                  @Param("lines") long lines,
+                  @Param("quantity") long quantity,
+                  @Param("revenue") BigDecimal revenue);
+
+    // to is exclusive
+    @Modifying
+    @Query("DELETE FROM ProductSalesDailyRollup r WHERE r.salesDate >= :from AND r.salesDate < :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Best sellers first
+    @Query("SELECT new org.example.demo.repository.SalesTotals(r.productId, SUM(r.lines), SUM(r.quantity), SUM(r.revenue))"
+            + " FROM ProductSalesDailyRollup r" + SalesDailyRollupRepository.FILTERS
+            + " GROUP BY r.productId ORDER BY SUM(r.revenue) DESC, r.productId")
+    List<SalesTotals> totalsByProduct(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("status") OrderStatus status, @Param("tier") CustomerTier tier,
+                                      Pageable pageable);
+}
@@ -0,0 +1,5 @@
+package org.example.demo.repository;
+
+// The fields of a product the search index is built from
+public record ProductSearchDocument(Long id, String name, String description) {
+}
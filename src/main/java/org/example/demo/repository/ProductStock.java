@@ -0,0 +1,5 @@
+package org.example.demo.repository;
+
+// Stock quantity of one product, as aggregated by StockMovementRepository
+public record ProductStock(Long productId, Long quantity) {
+}
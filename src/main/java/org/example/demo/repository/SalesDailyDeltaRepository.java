@@ -0,0 +1,29 @@
+package org.example.demo.repository;
+
+import org.example.demo.model.SalesDailyDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesDailyDeltaRepository extends JpaRepository<SalesDailyDelta, Long> {
+
+    List<SalesDailyDelta> findAllByOrderByIdAsc(Pageable pageable);
+
+    // Returns how many of the deltas were still there; rows another transaction deleted first are skipped
+    @Modifying
+    @Query("DELETE FROM SalesDailyDelta d WHERE d.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // to is exclusive
+    @Modifying
+    @Query("DELETE FROM SalesDailyDelta d WHERE d.salesDate >= :from AND d.salesDate < :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
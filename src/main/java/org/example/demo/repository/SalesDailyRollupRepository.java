@@ -0,0 +1,59 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.model.SalesDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    String FILTERS = " WHERE r.salesDate BETWEEN :from AND :to"
+            + " AND (:status IS NULL OR r.status = :status) AND (:tier IS NULL OR r.tier = :tier)";
+
+    // Returns 0 when the bucket has no row yet
+    @Modifying
+    @Query("UPDATE SalesDailyRollup r SET r.orders = r.orders + :orders,"
+            + " r.subtotal = r.subtotal + CAST(:subtotal AS BigDecimal),"
+            + " r.discount = r.discount + CAST(:discount AS BigDecimal),"
+            + " r.total = r.total + CAST(:total AS BigDecimal)"
+            + " WHERE r.salesDate = :salesDate AND r.tier = :tier AND r.status = :status")
+    int addTotals(@Param("salesDate") LocalDate salesDate,
+                  @Param("tier") CustomerTier tier,
+                  @Param("status") OrderStatus status,
+                  @Param("orders") long orders,
+                  @Param("subtotal") BigDecimal subtotal,
+                  @Param("discount") BigDecimal discount,
+                  @Param("total") BigDecimal total);
+
+    // to is exclusive
+    @Modifying
+    @Query("DELETE FROM SalesDailyRollup r WHERE r.salesDate >= :from AND r.salesDate < :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new org.example.demo.repository.SalesTotals(r.salesDate, SUM(r.orders), SUM(r.total))"
+            + " FROM SalesDailyRollup r" + FILTERS
+            + " GROUP BY r.salesDate ORDER BY r.salesDate")
+    List<SalesTotals> totalsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                  @Param("status") OrderStatus status, @Param("tier") CustomerTier tier);
+
+    @Query("SELECT new org.example.demo.repository.SalesTotals(r.tier, SUM(r.orders), SUM(r.total))"
+            + " FROM SalesDailyRollup r" + FILTERS
+            + " GROUP BY r.tier ORDER BY r.tier")
+    List<SalesTotals> totalsByTier(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                   @Param("status") OrderStatus status, @Param("tier") CustomerTier tier);
+
+    @Query("SELECT new org.example.demo.repository.SalesTotals(r.status, SUM(r.orders), SUM(r.total))"
+            + " FROM SalesDailyRollup r" + FILTERS
+            + " GROUP BY r.status ORDER BY r.status")
+    List<SalesTotals> totalsByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                     @Param("status") OrderStatus status, @Param("tier") CustomerTier tier);
+}
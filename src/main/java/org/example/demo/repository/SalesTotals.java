@@ -0,0 +1,12 @@
+package org.example.demo.repository;
+
+import java.math.BigDecimal;
+
+// One row of a sales report read from the rollup tables; key is a date, product id, tier or status.
+// quantity is only known for product rows.
+public record SalesTotals(Object key, Long orders, Long quantity, BigDecimal revenue) {
+
+    public SalesTotals(Object key, Long orders, BigDecimal revenue) {
+        this(key, orders, null, revenue);
+    }
+}
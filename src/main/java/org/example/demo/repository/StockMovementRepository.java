@@ -0,0 +1,34 @@
+package org.example.demo.repository;
+
+import org.example.demo.model.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    Page<StockMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+
+    // Snapshot plus the movements not folded into it yet, in one statement so the snapshot job can never
+    // be seen half-applied
+    @Query("SELECT new org.example.demo.repository.ProductStock(p.id, p.stockQuantity + COALESCE(SUM(m.quantity), 0))"
+            + " FROM Product p LEFT JOIN StockMovement m ON m.productId = p.id AND m.folded = false"
+            + " WHERE p.id IN :ids"
+            + " GROUP BY p.id, p.stockQuantity")
+    List<ProductStock> findAvailableStock(@Param("ids") Collection<Long> ids);
+
+    List<StockMovement> findByFoldedFalseOrderByIdAsc(Pageable pageable);
+
+    // Only flags movements still unfolded; the count tells the caller how many it actually claimed
+    @Modifying
+    @Query("UPDATE StockMovement m SET m.folded = true WHERE m.id IN :ids AND m.folded = false")
+    int markFolded(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,558 @@
+package org.example.demo.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.exception.ServiceBusyException;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductSearchDocument;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory inverted index over the name and description of the products that are not deleted.
+// ProductService updates it after each write; a periodic rebuild from the database picks up writes
+// made through other nodes. A query term matches index terms exactly, by prefix, or with one typo
+// (insertion, deletion, substitution or transposition); every query term must match.
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int MAX_QUERY_TERMS = 8;
+    // Prefixes shorter than this match too many terms to be useful
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 64;
+    // Shorter terms are only matched exactly or by prefix, one typo would match half the dictionary
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final float NAME_WEIGHT = 4f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int MAX_DESCRIPTION_HITS = 3;
+    private static final float EXACT = 1f;
+    private static final float PREFIX = 0.7f;
+    private static final float FUZZY = 0.5f;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Index index = new Index();
+    // Writes made while a rebuild reads the catalog, replayed onto the rebuilt index; guarded by lock
+    private List<Consumer<Index>> writesDuringRebuild;
+    private volatile boolean ready;
+
+    public record Hit(Long productId, float score) {
+    }
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    public void index(Product product) {
+        if (Boolean.TRUE.equals(product.getIsDeleted())) {
+            remove(product.getId());
+            return;
+        }
+        Long id = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        write(target -> target.put(id, name, description));
+    }
+
+    public void remove(Long productId) {
+        write(target -> target.remove(productId));
+    }
+
+    // Best matches first, at most limit hits
+    public List<Hit> search(String query, int limit) {
+        if (!ready) {
+            throw new ServiceBusyException("Product search index is still loading, retry shortly");
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        lock.readLock().lock();
+        try {
+            return index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs on startup, then at every interval. Returns the number of products indexed.
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.search.rebuild-interval:PT15M}")
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            readOnlyTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductSearchDocument> documents = productRepository.streamSearchDocuments()) {
+                    documents.forEach(doc -> rebuilt.put(doc.id(), doc.name(), doc.description()));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Product search index rebuild failed, keeping the current index", e);
+            return size();
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Replayed in order, so a product written while the catalog was read ends up current
+            writesDuringRebuild.forEach(write -> write.accept(rebuilt));
+            writesDuringRebuild = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index rebuilt with {} products and {} terms", rebuilt.size(), rebuilt.terms.size());
+        return rebuilt.size();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<Index> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(index);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lower case, accents removed ("Clé USB-C" -> [cle, usb, c])
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Optimal string alignment distance, stopping as soon as it exceeds 1
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDifference > 0) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (lengthDifference < 0) {
+            return b.regionMatches(i + 1, a, i, a.length() - i);
+        }
+        if (i == a.length()) {
+            return true;
+        }
+        // Substitution, or two swapped neighbours
+        return a.regionMatches(i + 1, b, i + 1, a.length() - i - 1)
+                || (i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2));
+    }
+
+    // Every variant of the term with one character removed
+    private static List<String> deletions(String term) {
+        List<String> variants = new ArrayList<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    // Documents are numbered densely so postings can be int arrays. Slots freed by removals are not reused;
+    // queries never touch them and the next rebuild numbers the catalog densely again.
+    private static final class Index {
+
+        private final Map<String, Postings> terms = new HashMap<>();
+        // Sorted dictionary for prefix lookups
+        private final NavigableSet<String> dictionary = new TreeSet<>();
+        // One-deletion variants -> terms; two terms one edit apart share a variant or are each other's variant
+        private final Map<String, List<String>> deletionVariants = new HashMap<>();
+        private final Map<Long, Integer> docIds = new HashMap<>();
+        private final List<Document> documents = new ArrayList<>();
+        private int liveDocuments;
+
+        private record Document(Long productId, String[] terms) {
+        }
+
+        int size() {
+            return liveDocuments;
+        }
+
+        void put(Long productId, String name, String description) {
+            Map<String, Float> weights = new LinkedHashMap<>();
+            for (String term : tokenize(name)) {
+                weights.put(term, NAME_WEIGHT);
+            }
+            Map<String, Integer> descriptionHits = new HashMap<>();
+            for (String term : tokenize(description)) {
+                descriptionHits.merge(term, 1, Integer::sum);
+            }
+            descriptionHits.forEach((term, hits) ->
+                    weights.merge(term, Math.min(hits, MAX_DESCRIPTION_HITS) * DESCRIPTION_WEIGHT, Float::sum));
+
+            Integer docId = docIds.get(productId);
+            if (docId != null) {
+                unlink(docId);
+            } else {
+                docId = documents.size();
+                documents.add(null);
+                docIds.put(productId, docId);
+            }
+            liveDocuments++;
+            documents.set(docId, new Document(productId, weights.keySet().toArray(String[]::new)));
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                Postings postings = terms.get(entry.getKey());
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(entry.getKey(), postings);
+                    addToDictionary(entry.getKey());
+                }
+                postings.put(docId, entry.getValue());
+            }
+        }
+
+        void remove(Long productId) {
+            Integer docId = docIds.remove(productId);
+            if (docId != null) {
+                unlink(docId);
+            }
+        }
+
+        private void unlink(int docId) {
+            Document document = documents.get(docId);
+            documents.set(docId, null);
+            liveDocuments--;
+            for (String term : document.terms()) {
+                Postings postings = terms.get(term);
+                postings.remove(docId);
+                if (postings.size == 0) {
+                    terms.remove(term);
+                    removeFromDictionary(term);
+                }
+            }
+        }
+
+        private void addToDictionary(String term) {
+            dictionary.add(term);
+            if (term.length() >= MIN_FUZZY_LENGTH) {
+                for (String variant : deletions(term)) {
+                    deletionVariants.computeIfAbsent(variant, k -> new ArrayList<>(1)).add(term);
+                }
+            }
+        }
+
+        private void removeFromDictionary(String term) {
+            dictionary.remove(term);
+            if (term.length() >= MIN_FUZZY_LENGTH) {
+                for (String variant : deletions(term)) {
+                    List<String> sharing = deletionVariants.get(variant);
+                    sharing.remove(term);
+                    if (sharing.isEmpty()) {
+                        deletionVariants.remove(variant);
+                    }
+                }
+            }
+        }
+
+        List<Hit> search(List<String> queryTerms, int limit) {
+            List<Map<String, Float>> expansions = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                Map<String, Float> expansion = expand(queryTerm);
+                if (expansion.isEmpty()) {
+                    return List.of();
+                }
+                expansions.add(expansion);
+            }
+            // Rarest query term first, so the candidate set starts small and only shrinks
+            expansions.sort(Comparator.comparingLong(this::postingsCount));
+
+            // Only the documents of the rarest query term are scored, so the work and scratch memory of a query
+            // follow its postings rather than the number of document slots
+            Candidates candidates = firstRound(expansions.get(0));
+            for (int round = 1; round < expansions.size(); round++) {
+                if (!candidates.retain(expansions.get(round))) {
+                    return List.of();
+                }
+            }
+            return candidates.top(limit);
+        }
+
+        // Index terms a query term stands for, with how well each one matches it
+        private Map<String, Float> expand(String queryTerm) {
+            Map<String, Float> expansion = new HashMap<>();
+            if (terms.containsKey(queryTerm)) {
+                expansion.put(queryTerm, EXACT);
+            }
+            if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+                int added = 0;
+                for (String term : dictionary.subSet(queryTerm, false, queryTerm + Character.MAX_VALUE, false)) {
+                    if (added++ == MAX_PREFIX_TERMS) {
+                        break;
+                    }
+                    expansion.putIfAbsent(term, PREFIX);
+                }
+            }
+            if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+                Set<String> candidates = new TreeSet<>(deletionVariants.getOrDefault(queryTerm, List.of()));
+                for (String variant : deletions(queryTerm)) {
+                    if (terms.containsKey(variant)) {
+                        candidates.add(variant);
+                    }
+                    candidates.addAll(deletionVariants.getOrDefault(variant, List.of()));
+                }
+                for (String term : candidates) {
+                    if (withinOneEdit(queryTerm, term)) {
+                        expansion.putIfAbsent(term, FUZZY);
+                    }
+                }
+            }
+            return expansion;
+        }
+
+        private long postingsCount(Map<String, Float> expansion) {
+            long count = 0;
+            for (String term : expansion.keySet()) {
+                count += terms.get(term).size;
+            }
+            return count;
+        }
+
+        // Rare terms say more about a product than common ones
+        private float factor(float match, Postings postings) {
+            return match * (float) Math.log(1 + (double) liveDocuments / postings.size);
+        }
+
+        // Union of the postings of every expansion, merged pairwise so a long prefix expansion stays n log n
+        private Candidates firstRound(Map<String, Float> expansion) {
+            List<Candidates> runs = new ArrayList<>(expansion.size());
+            for (Map.Entry<String, Float> entry : expansion.entrySet()) {
+                Postings postings = terms.get(entry.getKey());
+                runs.add(new Candidates(postings, factor(entry.getValue(), postings)));
+            }
+            while (runs.size() > 1) {
+                List<Candidates> merged = new ArrayList<>((runs.size() + 1) / 2);
+                for (int i = 0; i + 1 < runs.size(); i += 2) {
+                    merged.add(runs.get(i).union(runs.get(i + 1)));
+                }
+                if (runs.size() % 2 == 1) {
+                    merged.add(runs.get(runs.size() - 1));
+                }
+                runs = merged;
+            }
+            return runs.get(0);
+        }
+
+        // Documents that matched every query term so far, in ascending order, with their running scores.
+        // Several expansions of one query term count once, with the best one.
+        private final class Candidates {
+
+            private int[] docs;
+            private float[] scores;
+            private int size;
+
+            Candidates(Postings postings, float factor) {
+                size = postings.size;
+                docs = Arrays.copyOf(postings.docs, size);
+                scores = new float[size];
+                for (int i = 0; i < size; i++) {
+                    scores[i] = postings.weights[i] * factor;
+                }
+            }
+
+            private Candidates(int capacity) {
+                docs = new int[capacity];
+                scores = new float[capacity];
+            }
+
+            Candidates union(Candidates other) {
+                Candidates union = new Candidates(size + other.size);
+                int i = 0;
+                int j = 0;
+                while (i < size || j < other.size) {
+                    int doc;
+                    float score;
+                    if (j == other.size || (i < size && docs[i] < other.docs[j])) {
+                        doc = docs[i];
+                        score = scores[i++];
+                    } else if (i == size || other.docs[j] < docs[i]) {
+                        doc = other.docs[j];
+                        score = other.scores[j++];
+                    } else {
+                        doc = docs[i];
+                        score = Math.max(scores[i++], other.scores[j++]);
+                    }
+                    union.docs[union.size] = doc;
+                    union.scores[union.size++] = score;
+                }
+                return union;
+            }
+
+            // Keeps the documents the next query term matches. Candidates and postings are both ascending, so
+            // each lookup gallops forward from where the previous one ended. Returns false once none is left.
+            boolean retain(Map<String, Float> expansion) {
+                Postings[] postings = new Postings[expansion.size()];
+                float[] factors = new float[postings.length];
+                int term = 0;
+                for (Map.Entry<String, Float> entry : expansion.entrySet()) {
+                    postings[term] = terms.get(entry.getKey());
+                    factors[term] = factor(entry.getValue(), postings[term]);
+                    term++;
+                }
+                int[] from = new int[postings.length];
+
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    int docId = docs[i];
+                    boolean matched = false;
+                    float best = 0f;
+                    for (int t = 0; t < postings.length; t++) {
+                        int at = postings[t].seek(from[t], docId);
+                        if (at < 0) {
+                            from[t] = -at - 1;
+                            continue;
+                        }
+                        from[t] = at + 1;
+                        float score = postings[t].weights[at] * factors[t];
+                        if (!matched || score > best) {
+                            best = score;
+                            matched = true;
+                        }
+                    }
+                    if (matched) {
+                        docs[kept] = docId;
+                        scores[kept++] = scores[i] + best;
+                    }
+                }
+                size = kept;
+                return kept > 0;
+            }
+
+            List<Hit> top(int limit) {
+                Comparator<Hit> ranking = Comparator.comparing(Hit::score).reversed().thenComparing(Hit::productId);
+                PriorityQueue<Hit> worstFirst = new PriorityQueue<>(limit + 1, ranking.reversed());
+                for (int i = 0; i < size; i++) {
+                    // Most candidates cannot beat the current worst hit, skip building them
+                    if (worstFirst.size() == limit && scores[i] < worstFirst.peek().score()) {
+                        continue;
+                    }
+                    worstFirst.add(new Hit(documents.get(docs[i]).productId(), scores[i]));
+                    if (worstFirst.size() > limit) {
+                        worstFirst.poll();
+                    }
+                }
+                List<Hit> hits = new ArrayList<>(worstFirst);
+                hits.sort(ranking);
+                return hits;
+            }
+        }
+    }
+
+    // Document ids in ascending order with their term weights
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private float[] weights = new float[2];
+        private int size;
+
+        void put(int docId, float weight) {
+            int at = Arrays.binarySearch(docs, 0, size, docId);
+            if (at >= 0) {
+                weights[at] = weight;
+                return;
+            }
+            at = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(weights, at, weights, at + 1, size - at);
+            docs[at] = docId;
+            weights[at] = weight;
+            size++;
+        }
+
+        // Like Arrays.binarySearch from index from, probing 1, 2, 4... entries ahead first: the cost grows with
+        // the distance to docId, not with the length of the postings
+        int seek(int from, int docId) {
+            int step = 1;
+            int low = from;
+            while (low + step < size && docs[low + step] < docId) {
+                low += step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(docs, low, Math.min(low + step + 1, size), docId);
+        }
+
+        void remove(int docId) {
+            int at = Arrays.binarySearch(docs, 0, size, docId);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(weights, at + 1, weights, at, size - at - 1);
+            size--;
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package org.example.demo.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.example.demo.dto.request.ClientRequestDTO;
 import org.example.demo.dto.request.ClientRequestUpdateDTO;
+import org.example.demo.dto.response.ClientPageResponseDTO;
 import org.example.demo.dto.response.ClientResponseDTO;
+import org.example.demo.enums.CustomerTier;
 import org.example.demo.exception.DuplicateResourceException;
 import org.example.demo.exception.ResourceNotFoundException;
 import org.example.demo.mappers.ClientMapper;
 import org.example.demo.model.Client;
 import org.example.demo.repository.ClientRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +29,10 @@ public class ClientService {
 
     private final ClientRepository clientRepository;
     private final ClientMapper clientMapper;
+    private final EntityManager entityManager;
+    private final ClientStatsAggregator clientStatsAggregator;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     public ClientResponseDTO createClient(ClientRequestDTO req) {
         if (clientRepository.existsByEmail(req.getEmail())) {
@@ -30,10 +43,42 @@ public class ClientService {
         return clientMapper.toResponse(savedClient);
     }
 
-    public List<ClientResponseDTO> getAllClients() {
-        return clientRepository.findAll().stream()
+    // Page size is capped like the keyset listing so one request cannot pull the whole table
+    public Page<ClientResponseDTO> getAllClients(CustomerTier tier, Boolean active, Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            pageable = PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+        }
+        return clientRepository.findByFilters(tier, active, pageable)
+                .map(clientMapper::toResponse);
+    }
+
+    // Keyset page ordered by id, starting after the given id (or from the beginning)
+    public ClientPageResponseDTO getClientsAfter(Long afterId, CustomerTier tier, Boolean active, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<Client> clients = clientRepository.findByFiltersAfter(
+                afterId != null ? afterId : 0L, tier, active, PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = clients.size() > pageSize;
+        if (hasNext) {
+            clients = clients.subList(0, pageSize);
+        }
+        List<ClientResponseDTO> res = clients.stream()
                 .map(clientMapper::toResponse)
                 .collect(Collectors.toList());
+        Long nextCursorId = hasNext ? clients.get(clients.size() - 1).getId() : null;
+        return new ClientPageResponseDTO(res, hasNext, nextCursorId);
+    }
+
+    // Hands every matching client to the consumer while rows are read from the cursor.
+    // Entities are detached once mapped so the persistence context does not grow with the table.
+    @Transactional(readOnly = true)
+    public void exportClients(CustomerTier tier, Boolean active, Consumer<ClientResponseDTO> consumer) {
+        try (Stream<Client> clients = clientRepository.streamByFilters(tier, active)) {
+            clients.forEach(client -> {
+                consumer.accept(clientMapper.toResponse(client));
+                entityManager.detach(client);
+            });
+        }
     }
 
     public ClientResponseDTO getClientById(Long id) {
@@ -62,4 +107,9 @@ public class ClientService {
         clientRepository.save(client);
         return clientMapper.toResponse(client);
     }
+
+    // Recomputes totals and tiers of every client from the orders table
+    public int rebuildStatistics() {
+        return clientStatsAggregator.rebuild();
+    }
 }
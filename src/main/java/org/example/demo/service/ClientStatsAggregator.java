@@ -0,0 +1,148 @@
+package org.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.event.OrderConfirmedEvent;
+import org.example.demo.model.Client;
+import org.example.demo.model.ClientStatsDelta;
+import org.example.demo.repository.ClientOrderTotals;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.ClientStatsDeltaRepository;
+import org.example.demo.repository.OrderRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Records each confirmed order as a pending delta (client_stats_deltas) in the confirming transaction and
+// periodically applies the deltas to the clients table: one UPDATE per client with the summed deltas, then
+// one tier recalculation for all touched clients. Confirming an order therefore never locks the client row,
+// and deltas survive a crash until a flush has applied them.
+@Slf4j
+@Component
+public class ClientStatsAggregator {
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final ClientRepository clientRepository;
+    private final OrderRepository orderRepository;
+    private final ClientStatsDeltaRepository deltaRepository;
+    private final TransactionTemplate transactionTemplate;
+    // The reset, the delta delete and the order totals of a rebuild must all see one snapshot
+    private final TransactionTemplate rebuildTemplate;
+    // Serializes flushes and rebuilds on this node
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public ClientStatsAggregator(ClientRepository clientRepository, OrderRepository orderRepository,
+                                 ClientStatsDeltaRepository deltaRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.clientRepository = clientRepository;
+        this.orderRepository = orderRepository;
+        this.deltaRepository = deltaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Runs in the confirming transaction, so the delta commits or rolls back with the confirmation
+    @EventListener
+    public void onOrderConfirmed(OrderConfirmedEvent event) {
+        deltaRepository.save(ClientStatsDelta.builder()
+                .clientId(event.clientId())
+                .spentCents(Client.toCents(event.total()))
+                .orderDate(event.orderDate())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.client-stats.flush-interval:PT1S}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(this::flushBatch);
+            } while (batch == FLUSH_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // The failed batch was rolled back with its deltas, so the next flush applies them again
+            log.warn("Client statistics flush failed, will retry", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Recomputes every client's statistics and tier from the confirmed orders in one streaming pass, and
+    // drops the pending deltas in the same snapshot: a confirmation committed before it is counted from
+    // the orders, one committed after it is left as a delta for the next flush. Returns the number of
+    // clients with confirmed orders.
+    public int rebuild() {
+        writeLock.lock();
+        try {
+            return rebuildTemplate.execute(status -> {
+                clientRepository.resetOrderStats();
+                deltaRepository.deleteAllPending();
+                int clients = 0;
+                try (Stream<ClientOrderTotals> totals = orderRepository.streamConfirmedTotalsByClient()) {
+                    for (ClientOrderTotals row : (Iterable<ClientOrderTotals>) totals::iterator) {
+                        clientRepository.setOrderStats(row.getClientId(), Math.toIntExact(row.getOrders()),
+                                Client.toCents(row.getTotal()), row.getFirstOrderDate(), row.getLastOrderDate());
+                        clients++;
+                    }
+                }
+                clientRepository.recalculateAllTiers();
+                return clients;
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Applies up to FLUSH_BATCH_SIZE of the oldest deltas and returns how many it applied
+    private int flushBatch(TransactionStatus status) {
+        List<ClientStatsDelta> deltas = deltaRepository.findAllByOrderByIdAsc(PageRequest.of(0, FLUSH_BATCH_SIZE));
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        // Claim the deltas by deleting them: when another node flushes the same rows first, the count comes
+        // up short and this batch is rolled back instead of being applied twice
+        List<Long> ids = deltas.stream().map(ClientStatsDelta::getId).toList();
+        int claimed = deltaRepository.deleteByIds(ids);
+        if (claimed != ids.size()) {
+            log.info("Client statistics flush claimed {} of {} deltas, another node is flushing", claimed, ids.size());
+            status.setRollbackOnly();
+            return 0;
+        }
+
+        Map<Long, Delta> batch = new HashMap<>();
+        for (ClientStatsDelta delta : deltas) {
+            batch.merge(delta.getClientId(),
+                    new Delta(1, delta.getSpentCents(), delta.getOrderDate(), delta.getOrderDate()), Delta::plus);
+        }
+        for (Map.Entry<Long, Delta> entry : batch.entrySet()) {
+            Delta delta = entry.getValue();
+            clientRepository.addOrderStats(entry.getKey(), delta.orders(), delta.spentCents(),
+                    delta.firstOrderDate(), delta.lastOrderDate());
+        }
+        clientRepository.recalculateTiers(List.copyOf(batch.keySet()));
+        return deltas.size();
+    }
+
+    private record Delta(int orders, long spentCents, LocalDateTime firstOrderDate, LocalDateTime lastOrderDate) {
+
+        Delta plus(Delta other) {
+            return new Delta(orders + other.orders, spentCents + other.spentCents,
+                    firstOrderDate.isBefore(other.firstOrderDate) ? firstOrderDate : other.firstOrderDate,
+                    lastOrderDate.isAfter(other.lastOrderDate) ? lastOrderDate : other.lastOrderDate);
+        }
+    }
+}
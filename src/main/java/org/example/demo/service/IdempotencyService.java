@@ -0,0 +1,181 @@
+package org.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.aop.RetryOnConflict;
+import org.example.demo.cache.CacheConfig;
+import org.example.demo.enums.IdempotencyScope;
+import org.example.demo.exception.ConcurrentUpdateException;
+import org.example.demo.exception.IdempotencyKeyMismatchException;
+import org.example.demo.exception.InvalidOrderException;
+import org.example.demo.model.IdempotencyRecord;
+import org.example.demo.repository.IdempotencyRecordRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Makes POST retries safe: the response of a request carrying an Idempotency-Key is stored in the same
+// transaction as the order or payment it created, and a retry with that key gets the stored response back
+// without running the request again. Recent responses are also kept in memory, so most retries are
+// answered without touching the database.
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String KEY_CONSTRAINT = "uk_idempotency_keys_scope_key";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              CacheManager cacheManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+    }
+
+    public record Outcome<T>(T response, boolean replayed) {
+    }
+
+    private record StoredResponse(String requestHash, String response) {
+    }
+
+    // Runs action once per (scope, key). Without a key the action simply runs. The action joins the
+    // transaction the response is stored in; conflicts are retried here, around that whole transaction.
+    @RetryOnConflict
+    public <T> Outcome<T> execute(IdempotencyScope scope, String key, Object request, Class<T> responseType,
+                                  Supplier<T> action) {
+        if (key == null) {
+            return new Outcome<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOrderException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(request);
+        Optional<StoredResponse> stored = lookup(scope, key);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash, responseType);
+        }
+
+        try {
+            T response = transactionTemplate.execute(status -> {
+                T result = action.get();
+                String json = write(result);
+                idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .scope(scope)
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .response(json)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                return result;
+            });
+            cache().put(cacheKey(scope, key), new StoredResponse(requestHash, write(response)));
+            return new Outcome<>(response, false);
+        } catch (DataIntegrityViolationException e) {
+            if (!isKeyConflict(e)) {
+                throw e;
+            }
+            // A concurrent request with the same key committed first; this one was rolled back as a whole
+            return lookup(scope, key)
+                    .map(winner -> replay(winner, requestHash, responseType))
+                    .orElseThrow(() -> new ConcurrentUpdateException(
+                            "A request with this " + HEADER + " is still being processed, please retry", e));
+        }
+    }
+
+    // Stored responses only need to outlive the clients' retry window
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public int purgeExpired() {
+        int purged = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl)));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+        return purged;
+    }
+
+    private Optional<StoredResponse> lookup(IdempotencyScope scope, String key) {
+        Cache cache = cache();
+        StoredResponse cached = cache.get(cacheKey(scope, key), StoredResponse.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<StoredResponse> stored = idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key)
+                .map(record -> new StoredResponse(record.getRequestHash(), record.getResponse()));
+        stored.ifPresent(response -> cache.put(cacheKey(scope, key), response));
+        return stored;
+    }
+
+    private <T> Outcome<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(HEADER + " was already used for a different request");
+        }
+        try {
+            return new Outcome<>(objectMapper.readValue(stored.response(), responseType), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read as " + responseType.getSimpleName(), e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored as JSON", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request cannot be fingerprinted", e);
+        }
+    }
+
+    private static boolean isKeyConflict(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(KEY_CONSTRAINT);
+    }
+
+    private static String cacheKey(IdempotencyScope scope, String key) {
+        return scope + ":" + key;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CacheConfig.IDEMPOTENCY);
+    }
+}
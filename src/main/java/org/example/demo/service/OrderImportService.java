@@ -0,0 +1,167 @@
+package org.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.demo.dto.request.OrderItemRequestDTO;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderImportResultDTO;
+import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.enums.OrderImportStatus;
+import org.example.demo.exception.InsufficientStockException;
+import org.example.demo.exception.InvalidOrderException;
+import org.example.demo.exception.ResourceNotFoundException;
+import org.example.demo.importer.ImportedOrder;
+import org.example.demo.importer.OrderImportReader;
+import org.example.demo.model.Client;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Bulk order import: reads orders from a stream and creates them in transactions of chunkSize orders.
+// Only one chunk is held in memory; results are handed to the caller as each chunk commits. Chunks are
+// kept small because the products of a chunk stay locked until it commits.
+@Service
+public class OrderImportService {
+
+    private static final int MAX_CHUNK_SIZE = 100;
+
+    private final OrderService orderService;
+    private final ClientRepository clientRepository;
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultChunkSize;
+
+    public OrderImportService(OrderService orderService,
+                              ClientRepository clientRepository,
+                              ProductRepository productRepository,
+                              Validator validator,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.import.chunk-size:50}") int defaultChunkSize) {
+        this.orderService = orderService;
+        this.clientRepository = clientRepository;
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public void importOrders(OrderImportReader reader, Integer chunkSize, Consumer<OrderImportResultDTO> results) throws IOException {
+        int size = Math.min(Math.max(chunkSize != null ? chunkSize : defaultChunkSize, 1), MAX_CHUNK_SIZE);
+        List<ImportedOrder> chunk = new ArrayList<>(size);
+        ImportedOrder order;
+        while ((order = reader.next()) != null) {
+            chunk.add(order);
+            if (chunk.size() == size) {
+                processChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, results);
+        }
+    }
+
+    private void processChunk(List<ImportedOrder> chunk, Consumer<OrderImportResultDTO> results) {
+        List<OrderImportResultDTO> chunkResults;
+        try {
+            chunkResults = transactionTemplate.execute(status -> importChunk(chunk));
+        } catch (RuntimeException e) {
+            // A database error rolls back the whole chunk, including orders that had succeeded
+            chunkResults = chunk.stream()
+                    .map(o -> failed(o, "Chunk rolled back: " + e.getMessage()))
+                    .collect(Collectors.toList());
+        }
+        // The request-scoped persistence context would otherwise keep every imported entity
+        entityManager.clear();
+        chunkResults.forEach(results);
+    }
+
+    private List<OrderImportResultDTO> importChunk(List<ImportedOrder> chunk) {
+        // Load every client and product referenced by the chunk in one query each
+        Set<Long> clientIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (ImportedOrder order : chunk) {
+            OrderRequestDTO req = order.request();
+            if (req == null) {
+                continue;
+            }
+            if (req.getClientId() != null) {
+                clientIds.add(req.getClientId());
+            }
+            if (req.getOrderItems() != null) {
+                for (OrderItemRequestDTO item : req.getOrderItems()) {
+                    if (item != null && item.getProductId() != null) {
+                        productIds.add(item.getProductId());
+                    }
+                }
+            }
+        }
+        Map<Long, Client> clients = new HashMap<>();
+        for (Client client : clientRepository.findAllById(clientIds)) {
+            clients.put(client.getId(), client);
+        }
+        // Every product of the chunk is locked up front, in id order, in one statement: the per-order
+        // checks then only take locks already held, so a chunk cannot deadlock with orders placed meanwhile
+        Map<Long, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.lockAllByIdIn(productIds)) {
+                products.put(product.getId(), product);
+            }
+        }
+
+        List<OrderImportResultDTO> results = new ArrayList<>(chunk.size());
+        for (ImportedOrder order : chunk) {
+            results.add(importOne(order, clients, products));
+        }
+        return results;
+    }
+
+    private OrderImportResultDTO importOne(ImportedOrder order, Map<Long, Client> clients, Map<Long, Product> products) {
+        if (order.error() != null) {
+            return failed(order, order.error());
+        }
+
+        // Same bean validation as @Valid on POST /api/orders
+        Set<ConstraintViolation<OrderRequestDTO>> violations = validator.validate(order.request());
+        if (!violations.isEmpty()) {
+            return failed(order, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        try {
+            OrderResponseDTO created = orderService.createOrder(order.request(), clients, products);
+            return new OrderImportResultDTO(order.index(), order.reference(), OrderImportStatus.CREATED,
+                    created.getId(), created.getTotal(), null);
+        } catch (InsufficientStockException e) {
+            return new OrderImportResultDTO(order.index(), order.reference(), OrderImportStatus.REJECTED,
+                    null, null, e.getMessage());
+        } catch (InvalidOrderException | ResourceNotFoundException e) {
+            return failed(order, e.getMessage());
+        }
+    }
+
+    private static OrderImportResultDTO failed(ImportedOrder order, String error) {
+        return new OrderImportResultDTO(order.index(), order.reference(), OrderImportStatus.FAILED, null, null, error);
+    }
+}
@@ -1,11 +1,17 @@
 package org.example.demo.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.demo.aop.RetryOnConflict;
 import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderPageResponseDTO;
 import org.example.demo.dto.response.OrderResponseDTO;
 import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.StockMovementType;
+import org.example.demo.event.OrderConfirmedEvent;
+import org.example.demo.event.OrderStatusChangedEvent;
 import org.example.demo.exception.InsufficientStockException;
 import org.example.demo.exception.InvalidOrderException;
+import org.example.demo.exception.InvalidPromoCodeException;
 import org.example.demo.exception.OrderStatusException;
 import org.example.demo.exception.ResourceNotFoundException;
 import org.example.demo.mappers.OrderMapper;
@@ -13,14 +19,21 @@ import org.example.demo.model.*;
 import org.example.demo.repository.ClientRepository;
 import org.example.demo.repository.OrderRepository;
 import org.example.demo.repository.ProductRepository;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.math.RoundingMode;
 
 @Service
@@ -30,56 +43,84 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ClientRepository clientRepository;
     private final ProductRepository productRepository;
+    private final StockReservationService stockReservationService;
     private final OrderMapper orderMapper;
+    private final PricingRules pricingRules;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
 
-    @Value("${app.vat.rate:0.20}")
-    private BigDecimal vatRate;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Transactional
     public OrderResponseDTO createOrder(OrderRequestDTO req) {
-        // Validate request
+        validateOrderRequest(req);
+
+        // Find client
+        Client client = clientRepository.findById(req.getClientId())
+                .orElseThrow(() -> new ResourceNotFoundException("Client with id " + req.getClientId() + " not found"));
+
+        // Load every referenced product in one query
+        Set<Long> productIds = new HashSet<>();
+        for (var itemReq : req.getOrderItems()) {
+            productIds.add(itemReq.getProductId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getId(), product);
+        }
+
+        return placeOrder(req, client, products);
+    }
+
+    // Same rules as createOrder(req), with clients and products already loaded by the caller
+    // (bulk import loads them once per chunk). Runs in the caller's transaction.
+    public OrderResponseDTO createOrder(OrderRequestDTO req, Map<Long, Client> clients, Map<Long, Product> products) {
+        validateOrderRequest(req);
+
+        Client client = clients.get(req.getClientId());
+        if (client == null) {
+            throw new ResourceNotFoundException("Client with id " + req.getClientId() + " not found");
+        }
+
+        return placeOrder(req, client, products);
+    }
+
+    private void validateOrderRequest(OrderRequestDTO req) {
         if (req.getClientId() == null) {
             throw new InvalidOrderException("Client ID is required");
         }
         if (req.getOrderItems() == null || req.getOrderItems().isEmpty()) {
             throw new InvalidOrderException("Order must contain at least one item");
         }
+    }
 
-        // Find client
-        Client client = clientRepository.findById(req.getClientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Client with id " + req.getClientId() + " not found"));
-
+    private OrderResponseDTO placeOrder(OrderRequestDTO req, Client client, Map<Long, Product> products) {
         // Create order
         Order order = new Order();
         order.setClient(client);
         order.setOrderDate(LocalDateTime.now());
         order.setPromoCode(req.getPromoCode());
+        // Sales reports group by the tier the order was placed under, not the client's current one
+        order.setCustomerTier(client.getFidelityLevel());
 
-        // Create order items and validate stock
+        // Create order items
         List<OrderItem> orderItems = new ArrayList<>();
+        Map<Long, Integer> requestedQuantities = new HashMap<>();
         BigDecimal subtotal = BigDecimal.ZERO;
 
         for (var itemReq : req.getOrderItems()) {
-            Product product = productRepository.findById(itemReq.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product with id " + itemReq.getProductId() + " not found"));
+            Product product = products.get(itemReq.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product with id " + itemReq.getProductId() + " not found");
+            }
 
             // Check if product is deleted
             if (product.getIsDeleted()) {
                 throw new InvalidOrderException("Product " + product.getName() + " is no longer available");
             }
 
-            // Validate stock availability
-            if (product.getStockQuantity() < itemReq.getQuantity()) {
-                order.setStatus(OrderStatus.REJECTED);
-                order.setSubtotal(BigDecimal.ZERO);
-                order.setDiscount(BigDecimal.ZERO);
-                order.setVat(BigDecimal.ZERO);
-                order.setTotal(BigDecimal.ZERO);
-                order.setRemainingAmount(BigDecimal.ZERO);
-                orderRepository.save(order);
-                throw new InsufficientStockException("Insufficient stock for product: " + product.getName() 
-                    + ". Available: " + product.getStockQuantity() + ", Requested: " + itemReq.getQuantity());
-            }
+            // Same product may appear on several lines, quantities are summed per product for StockReservationService.checkAndLock and reserve
+            requestedQuantities.merge(product.getId(), itemReq.getQuantity(), Integer::sum);
 
             // Create order item
             BigDecimal itemTotal = product.getUnitPrice()
@@ -99,49 +140,48 @@ public class OrderService {
         }
 
         order.setOrderItems(orderItems);
-        order.setSubtotal(subtotal.setScale(2, RoundingMode.HALF_UP));
+        subtotal = subtotal.setScale(2, RoundingMode.HALF_UP);
+        order.setSubtotal(subtotal);
 
-        // Calculate loyalty discount based on client's current tier
-        BigDecimal loyaltyDiscount = calculateLoyaltyDiscount(client, subtotal);
-        
-        // Calculate promo code discount (5% if valid)
-        BigDecimal promoDiscount = BigDecimal.ZERO;
+        // A valid promo code adds an extra percentage on top of the loyalty discount
+        boolean promoApplied = false;
         if (req.getPromoCode() != null && !req.getPromoCode().isEmpty()) {
-            if (isValidPromoCode(req.getPromoCode())) {
-                promoDiscount = subtotal.multiply(new BigDecimal("0.05")).setScale(2, RoundingMode.HALF_UP);
-            } else {
-                throw new InvalidOrderException("Invalid promo code format. Must be PROMO-XXXX");
+            if (!pricingRules.isValidPromoCode(req.getPromoCode())) {
+                throw new InvalidPromoCodeException("Invalid promo code format. Must be PROMO-XXXX");
             }
+            promoApplied = true;
         }
-        
-        // Cumulative discounts (loyalty + promo)
-        BigDecimal totalDiscount = loyaltyDiscount.add(promoDiscount).setScale(2, RoundingMode.HALF_UP);
-        order.setDiscount(totalDiscount);
-
-        // Calculate amounts
-        BigDecimal subtotalAfterDiscount = subtotal.subtract(totalDiscount).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal vat = subtotalAfterDiscount.multiply(vatRate).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal total = subtotalAfterDiscount.add(vat).setScale(2, RoundingMode.HALF_UP);
-
-        order.setVat(vat);
-        order.setTotal(total);
-        order.setStatus(OrderStatus.PENDING);
-        order.setRemainingAmount(total);
 
-        // Decrement product stock
-        for (OrderItem item : orderItems) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() - item.getQuantity());
-            productRepository.save(product);
+        // Cumulative discounts (loyalty tier + promo), then VAT on the discounted amount
+        PricingRules.PriceBreakdown price = pricingRules.price(client.getFidelityLevel(), subtotal, promoApplied);
+        order.setDiscount(price.discount());
+        order.setVat(price.vat());
+        order.setTotal(price.total());
+        order.setStatus(OrderStatus.PENDING);
+        order.setRemainingAmount(price.total());
+
+        // Check stock under the product row locks before anything is written, so a shortage leaves no order
+        // behind, even when the caller (bulk import) catches the exception and commits the rest of its chunk
+        Optional<StockReservationService.StockShortage> shortage =
+                stockReservationService.checkAndLock(requestedQuantities);
+        if (shortage.isPresent()) {
+            Product product = products.get(shortage.get().productId());
+            throw new InsufficientStockException("Insufficient stock for product: " + product.getName()
+                + ". Available: " + shortage.get().available() + ", Requested: " + shortage.get().requested());
         }
 
-        // Save order
+        // Then save the order and book its stock, still under the locks; the movements reference the order
         Order savedOrder = orderRepository.save(order);
+        stockReservationService.reserve(savedOrder.getId(), requestedQuantities);
+
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, null));
+
         return orderMapper.toResponse(savedOrder);
     }
 
 
 
+    @RetryOnConflict
     @Transactional
     public OrderResponseDTO cancelOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
@@ -153,20 +193,18 @@ public class OrderService {
         }
 
         // Restore product stock
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
-        }
+        stockReservationService.release(order, StockMovementType.CANCEL_RELEASE);
 
         // Update order status
         order.setStatus(OrderStatus.CANCELED);
         Order savedOrder = orderRepository.save(order);
-        
+        publishStatusChange(OrderStatusChangedEvent.of(savedOrder, OrderStatus.PENDING));
+
         return orderMapper.toResponse(savedOrder);
     }
 
 
+    @RetryOnConflict
     @Transactional
     public OrderResponseDTO rejectOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
@@ -178,19 +216,17 @@ public class OrderService {
         }
 
         // Restore product stock
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
-        }
+        stockReservationService.release(order, StockMovementType.REJECT_RELEASE);
 
         // Update order status
         order.setStatus(OrderStatus.REJECTED);
         Order savedOrder = orderRepository.save(order);
-        
+        publishStatusChange(OrderStatusChangedEvent.of(savedOrder, OrderStatus.PENDING));
+
         return orderMapper.toResponse(savedOrder);
     }
 
+    @RetryOnConflict
     @Transactional
     public OrderResponseDTO confirmOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
@@ -205,89 +241,54 @@ public class OrderService {
         order.setStatus(OrderStatus.CONFIRMED);
         Order savedOrder = orderRepository.save(order);
 
-        // Update client statistics
-        Client client = order.getClient();
-        client.setTotalOrders(client.getTotalOrders() + 1);
-        client.setTotalSpent(client.getTotalSpent() + order.getTotal().doubleValue());
-        
-        // Update first order date if this is the first order
-        if (client.getFirstOrderDate() == null) {
-            client.setFirstOrderDate(order.getOrderDate());
-        }
-        
-        // Update last order date
-        client.setLastOrderDate(order.getOrderDate());
-        
-        // Recalculate and update client tier based on new statistics
-        updateClientTier(client);
-        
-        clientRepository.save(client);
-        
+        // ClientStatsAggregator records a pending delta in this transaction and applies client statistics
+        // and tier in batches later, so confirming does not lock the client row
+        eventPublisher.publishEvent(new OrderConfirmedEvent(order.getId(), order.getClient().getId(),
+                order.getTotal(), order.getOrderDate()));
+        // Sales rollups move the order from the PENDING bucket to the CONFIRMED one, also after commit
+        publishStatusChange(OrderStatusChangedEvent.of(savedOrder, OrderStatus.PENDING));
+
         return orderMapper.toResponse(savedOrder);
     }
 
-    // Get all orders for a specific client
-    public List<OrderResponseDTO> getOrdersByClient(Long clientId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new ResourceNotFoundException("Client with id " + clientId + " not found"));
-        
-        List<Order> orders = orderRepository.findByClientOrderByOrderDateDesc(client);
-        
-        return orders.stream()
-                .map(orderMapper::toResponse)
-                .collect(java.util.stream.Collectors.toList());
+    // Rollups pick the change up after commit; downstream systems through the outbox, written in this transaction
+    private void publishStatusChange(OrderStatusChangedEvent event) {
+        eventPublisher.publishEvent(event);
+        outboxService.orderStatusChanged(event);
     }
 
-
-    private BigDecimal calculateLoyaltyDiscount(Client client, BigDecimal subtotal) {
-        BigDecimal discount = BigDecimal.ZERO;
-        
-        switch (client.getFidelityLevel()) {
-            case SILVER:
-                if (subtotal.compareTo(new BigDecimal("500")) >= 0) {
-                    discount = subtotal.multiply(new BigDecimal("0.05"));
-                }
-                break;
-            case GOLD:
-                if (subtotal.compareTo(new BigDecimal("800")) >= 0) {
-                    discount = subtotal.multiply(new BigDecimal("0.10"));
-                }
-                break;
-            case PLATINUM:
-                if (subtotal.compareTo(new BigDecimal("1200")) >= 0) {
-                    discount = subtotal.multiply(new BigDecimal("0.15"));
-                }
-                break;
-            case BASIC:
-            default:
-                discount = BigDecimal.ZERO;
-                break;
+    // Get one page of a client's orders, newest first, continuing after the given cursor
+    @Transactional(readOnly = true)
+    public OrderPageResponseDTO getOrdersByClient(Long clientId, LocalDateTime cursorDate, Long cursorId, int size) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new ResourceNotFoundException("Client with id " + clientId + " not found");
         }
-        
-        return discount.setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private void updateClientTier(Client client) {
-        int totalOrders = client.getTotalOrders();
-        double totalSpent = client.getTotalSpent();
-        
-        if (totalOrders >= 20 || totalSpent >= 15000) {
-            client.setFidelityLevel(org.example.demo.enums.CustomerTier.PLATINUM);
-        } else if (totalOrders >= 10 || totalSpent >= 5000) {
-            client.setFidelityLevel(org.example.demo.enums.CustomerTier.GOLD);
-        } else if (totalOrders >= 3 || totalSpent >= 1000) {
-            client.setFidelityLevel(org.example.demo.enums.CustomerTier.SILVER);
-        } else {
-            client.setFidelityLevel(org.example.demo.enums.CustomerTier.BASIC);
+        if ((cursorDate == null) != (cursorId == null)) {
+            throw new InvalidOrderException("cursorDate and cursorId must be provided together");
         }
-    }
 
-//    validate promo code
-    private boolean isValidPromoCode(String promoCode) {
-        if (promoCode == null || promoCode.isEmpty()) {
-            return false;
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // Ask for one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Long> ids = cursorDate == null
+                ? orderRepository.findFirstIdsByClient(clientId, limit)
+                : orderRepository.findIdsByClientBefore(clientId, cursorDate, cursorId, limit);
+
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return new OrderPageResponseDTO(List.of(), false, null, null);
         }
-        return promoCode.matches("PROMO-[A-Z0-9]{4}");
-    }
 
+        List<OrderResponseDTO> orders = orderRepository.findByIdInOrderByOrderDateDescIdDesc(ids).stream()
+                .map(orderMapper::toResponse)
+                .collect(java.util.stream.Collectors.toList());
+
+        OrderResponseDTO last = orders.get(orders.size() - 1);
+        return hasNext
+                ? new OrderPageResponseDTO(orders, true, last.getOrderDate(), last.getId())
+                : new OrderPageResponseDTO(orders, false, null, null);
+    }
 }
@@ -0,0 +1,201 @@
+package org.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.model.OutboxEvent;
+import org.example.demo.outbox.OutboxMessage;
+import org.example.demo.outbox.OutboxSink;
+import org.example.demo.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Delivers the outbox to the sink. Each batch locks the oldest pending events, spreads them over
+// parallelism lanes by aggregate and marks the delivered ones published in the same transaction.
+// All events of an aggregate go through one lane in id order, and when one of them fails the rest of
+// that aggregate waits for the next run, so each aggregate's events reach the sink in order.
+// Delivery is at least once: a batch whose transaction fails after delivering is delivered again.
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MARK_CHUNK = 1000;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration retention;
+    private final ExecutorService executor;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.parallelism:4}") int parallelism,
+                       @Value("${app.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1);
+        this.parallelism = Math.max(parallelism, 1);
+        this.retention = retention;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread thread = new Thread(r, "outbox-relay-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record AggregateKey(OutboxAggregateType type, Long id) {
+    }
+
+    private record LaneResult(List<Long> delivered, Map<Long, String> failed) {
+    }
+
+    private record BatchResult(int size, int delivered, int failed) {
+    }
+
+    // Returns the number of events delivered. A full batch without failures is followed by the next one
+    // right away; after a failure the next run retries it, one relay interval later.
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT1S}")
+    public int relay() {
+        int delivered = 0;
+        try {
+            BatchResult batch;
+            do {
+                batch = transactionTemplate.execute(status -> relayBatch());
+                delivered += batch.delivered();
+            } while (batch.size() == batchSize && batch.failed() == 0);
+        } catch (RuntimeException e) {
+            // The batch's marks were rolled back, so its events are delivered again by the next run
+            log.warn("Outbox relay failed after delivering {} events, will retry", delivered, e);
+        }
+        return delivered;
+    }
+
+    // Published events only need to be kept for investigating deliveries
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:PT1H}")
+    public int purgePublished() {
+        int purged = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            log.info("Purged {} published outbox events", purged);
+        }
+        return purged;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private BatchResult relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockPending(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return new BatchResult(0, 0, 0);
+        }
+
+        List<List<OutboxEvent>> lanes = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        // Events come in id order and an aggregate always maps to the same lane, so each lane holds
+        // its aggregates' events in order
+        for (OutboxEvent event : events) {
+            int lane = Math.floorMod(Objects.hash(event.getAggregateType(), event.getAggregateId()), parallelism);
+            lanes.get(lane).add(event);
+        }
+
+        List<LaneResult> results = deliverLanes(lanes.stream().filter(lane -> !lane.isEmpty()).toList());
+        try {
+            sink.flush();
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox sink could not flush", e);
+        }
+
+        List<Long> delivered = new ArrayList<>(events.size());
+        Map<Long, String> failed = new LinkedHashMap<>();
+        for (LaneResult result : results) {
+            delivered.addAll(result.delivered());
+            failed.putAll(result.failed());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < delivered.size(); from += MARK_CHUNK) {
+            outboxEventRepository.markPublished(delivered.subList(from, Math.min(from + MARK_CHUNK, delivered.size())), now);
+        }
+        failed.forEach(outboxEventRepository::recordFailure);
+        return new BatchResult(events.size(), delivered.size(), failed.size());
+    }
+
+    private List<LaneResult> deliverLanes(List<List<OutboxEvent>> lanes) {
+        if (lanes.size() == 1) {
+            return List.of(deliverLane(lanes.get(0)));
+        }
+        List<Callable<LaneResult>> tasks = lanes.stream()
+                .map(lane -> (Callable<LaneResult>) () -> deliverLane(lane))
+                .toList();
+        List<LaneResult> results = new ArrayList<>(lanes.size());
+        try {
+            for (Future<LaneResult> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering outbox events", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Outbox lane failed", e.getCause());
+        }
+        return results;
+    }
+
+    private LaneResult deliverLane(List<OutboxEvent> lane) {
+        List<Long> delivered = new ArrayList<>(lane.size());
+        Map<Long, String> failed = new LinkedHashMap<>();
+        Set<AggregateKey> blocked = new HashSet<>();
+        for (OutboxEvent event : lane) {
+            AggregateKey aggregate = new AggregateKey(event.getAggregateType(), event.getAggregateId());
+            if (blocked.contains(aggregate)) {
+                // Stays pending behind the failed event of its aggregate
+                continue;
+            }
+            try {
+                sink.deliver(OutboxMessage.of(event));
+                delivered.add(event.getId());
+            } catch (Exception e) {
+                log.warn("Outbox event {} ({} {}) could not be delivered (attempt {})", event.getId(),
+                        event.getAggregateType(), event.getAggregateId(), event.getAttempts() + 1, e);
+                blocked.add(aggregate);
+                failed.put(event.getId(), truncate(String.valueOf(e.getMessage())));
+            }
+        }
+        return new LaneResult(delivered, failed);
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.enums.OutboxEventType;
+import org.example.demo.event.OrderStatusChangedEvent;
+import org.example.demo.event.PaymentStatusChangedEvent;
+import org.example.demo.model.OutboxEvent;
+import org.example.demo.repository.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Writes events for downstream systems into outbox_events. Callers must already be in the transaction of
+// the change being announced, so the event is committed or rolled back together with it; OutboxRelay
+// delivers it afterwards, keeping the downstream systems out of the request path.
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusChanged(OrderStatusChangedEvent event) {
+        OutboxEventType type = switch (event.status()) {
+            case CONFIRMED -> OutboxEventType.ORDER_CONFIRMED;
+            case CANCELED -> OutboxEventType.ORDER_CANCELED;
+            case REJECTED -> OutboxEventType.ORDER_REJECTED;
+            default -> throw new IllegalArgumentException("No outbox event for order status " + event.status());
+        };
+        record(OutboxAggregateType.ORDER, event.orderId(), type, event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentStatusChanged(PaymentStatusChangedEvent event) {
+        OutboxEventType type = switch (event.status()) {
+            case CASHED -> OutboxEventType.PAYMENT_CASHED;
+            case REJECTED -> OutboxEventType.PAYMENT_REJECTED;
+            default -> throw new IllegalArgumentException("No outbox event for payment status " + event.status());
+        };
+        record(OutboxAggregateType.PAYMENT, event.paymentId(), type, event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxAggregateType aggregateType, Long aggregateId, OutboxEventType eventType, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(write(payload))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private String write(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event cannot be stored as JSON", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.example.demo.exception.ServiceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs BCrypt on a small, bounded pool so a burst of logins cannot use more than `threads` cores and
+// starve order traffic of CPU. The calling servlet thread still waits for its hash, for at most
+// wait-timeout, so the queue is kept short enough to drain within it. When the pool and its queue are
+// full, callers are turned away immediately (ServiceBusyException, HTTP 503) instead of piling up.
+@Component
+public class PasswordHasher {
+
+    private final int strength;
+    private final Duration waitTimeout;
+    private final ExecutorService executor;
+    // userName + stored hash -> HMAC of the password that was last verified against it.
+    // Keyed on the stored hash so a password change invalidates the entry; the HMAC key never
+    // leaves this process, so the cache holds nothing that can be replayed elsewhere.
+    private final Cache<String, byte[]> verified;
+    private final Mac cacheKeyPrototype;
+
+    public PasswordHasher(@Value("${app.auth.bcrypt.strength:10}") int strength,
+                          @Value("${app.auth.bcrypt.threads:2}") int threads,
+                          @Value("${app.auth.bcrypt.queue-capacity:16}") int queueCapacity,
+                          @Value("${app.auth.bcrypt.wait-timeout:2s}") Duration waitTimeout,
+                          @Value("${app.auth.bcrypt.cache-ttl:60s}") Duration cacheTtl,
+                          MeterRegistry meterRegistry) {
+        this.strength = strength;
+        this.waitTimeout = waitTimeout;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "bcrypt");
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.cacheKeyPrototype = newRandomMac();
+    }
+
+    public String hash(String password) {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(strength)));
+    }
+
+    public boolean matches(String userName, String password, String storedHash) {
+        String key = userName + '\u0000' + storedHash;
+        byte[] fingerprint = fingerprint(password);
+        byte[] cached = verified.getIfPresent(key);
+        if (cached != null && MessageDigest.isEqual(cached, fingerprint)) {
+            return true;
+        }
+
+        boolean matches = run(() -> BCrypt.checkpw(password, storedHash));
+        if (matches) {
+            verified.put(key, fingerprint);
+        }
+        return matches;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Too many concurrent logins, please retry shortly");
+        }
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceBusyException("Too many concurrent logins, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while checking credentials");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private byte[] fingerprint(String password) {
+        try {
+            return ((Mac) cacheKeyPrototype.clone()).doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac newRandomMac() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.dto.response.PaymentClearingIssueDTO;
+import org.example.demo.dto.response.PaymentClearingReportDTO;
+import org.example.demo.enums.PaymentClearingOutcome;
+import org.example.demo.enums.PaymentStatus;
+import org.example.demo.event.PaymentStatusChangedEvent;
+import org.example.demo.importer.ClearingLine;
+import org.example.demo.importer.CsvClearingFileReader;
+import org.example.demo.model.Payment;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.PaymentRepository;
+import org.example.demo.repository.PendingPaymentRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Bank reconciliation: applies a clearing file to the pending cheques and transfers in bulk.
+// Pending payments are indexed in memory by reference once, lines are matched against the index as the
+// file streams in, and the matches are applied in transactions of chunkSize payments.
+@Slf4j
+@Service
+public class PaymentClearingService {
+
+    private static final int MAX_CHUNK_SIZE = 5000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final int defaultChunkSize;
+
+    public PaymentClearingService(PaymentRepository paymentRepository,
+                                  OrderRepository orderRepository,
+                                  EntityManager entityManager,
+                                  OutboxService outboxService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.clearing.chunk-size:500}") int defaultChunkSize) {
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    private record Match(ClearingLine line, Long paymentId) {
+    }
+
+    public PaymentClearingReportDTO clear(CsvClearingFileReader reader, Integer chunkSize) throws IOException {
+        int size = Math.min(Math.max(chunkSize != null ? chunkSize : defaultChunkSize, 1), MAX_CHUNK_SIZE);
+        Map<String, List<PendingPaymentRef>> index = loadIndex();
+
+        PaymentClearingReportDTO report = new PaymentClearingReportDTO();
+        List<Match> chunk = new ArrayList<>(size);
+        ClearingLine line;
+        while ((line = reader.next()) != null) {
+            report.setLines(report.getLines() + 1);
+            if (line.error() != null) {
+                report.getIssues().add(issue(line, PaymentClearingOutcome.INVALID, null, line.error()));
+                continue;
+            }
+            Match match = match(line, index, report);
+            if (match != null) {
+                chunk.add(match);
+                if (chunk.size() == size) {
+                    applyChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, report);
+        }
+        // Apply-time issues are only known once their chunk has run, after later lines were matched
+        report.getIssues().sort((a, b) -> Integer.compare(a.getLineNumber(), b.getLineNumber()));
+        return report;
+    }
+
+    private Map<String, List<PendingPaymentRef>> loadIndex() {
+        List<PendingPaymentRef> pending = readOnlyTemplate.execute(status -> paymentRepository.findPendingBankPayments());
+        Map<String, List<PendingPaymentRef>> index = new HashMap<>(Math.max(16, pending.size() * 2));
+        for (PendingPaymentRef payment : pending) {
+            // Several payments can share a reference (e.g. a cheque book prefix reused across banks)
+            index.computeIfAbsent(normalize(payment.reference()), k -> new ArrayList<>(1)).add(payment);
+        }
+        return index;
+    }
+
+    private Match match(ClearingLine line, Map<String, List<PendingPaymentRef>> index, PaymentClearingReportDTO report) {
+        List<PendingPaymentRef> candidates = index.get(normalize(line.reference()));
+        if (candidates == null || candidates.isEmpty()) {
+            report.getIssues().add(issue(line, PaymentClearingOutcome.UNMATCHED, null,
+                    "No pending cheque or transfer with this reference"));
+            return null;
+        }
+
+        String bank = normalize(line.bankName());
+        for (Iterator<PendingPaymentRef> it = candidates.iterator(); it.hasNext(); ) {
+            PendingPaymentRef candidate = it.next();
+            if (candidate.amount().compareTo(line.amount()) == 0 && normalize(candidate.bankName()).equals(bank)) {
+                // Consumed, so a duplicated line in the file cannot clear the same payment twice
+                it.remove();
+                return new Match(line, candidate.id());
+            }
+        }
+
+        PendingPaymentRef closest = candidates.get(0);
+        report.getIssues().add(issue(line, PaymentClearingOutcome.MISMATCH, closest.id(),
+                "Expected " + closest.amount() + " DH at " + closest.bankName()
+                        + ", file has " + line.amount() + " DH at " + line.bankName()));
+        return null;
+    }
+
+    private void applyChunk(List<Match> chunk, PaymentClearingReportDTO report) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<PaymentClearingIssueDTO> issues = new ArrayList<>();
+                int[] applied = transactionTemplate.execute(status -> applyMatches(chunk, issues));
+                report.setCashed(report.getCashed() + applied[0]);
+                report.setRejected(report.getRejected() + applied[1]);
+                report.getIssues().addAll(issues);
+                break;
+            } catch (ConcurrencyFailureException e) {
+                // A payment of the chunk was updated through the API meanwhile; the next attempt re-reads
+                // the chunk and reports that payment as already processed
+                if (attempt < MAX_ATTEMPTS) {
+                    log.debug("Clearing chunk lost a concurrent update (attempt {}/{}), retrying", attempt, MAX_ATTEMPTS);
+                    continue;
+                }
+                failChunk(chunk, report, e);
+                break;
+            } catch (RuntimeException e) {
+                failChunk(chunk, report, e);
+                break;
+            } finally {
+                // The request-scoped persistence context would otherwise keep every cleared payment
+                entityManager.clear();
+            }
+        }
+    }
+
+    // Returns {cashed, rejected}
+    private int[] applyMatches(List<Match> chunk, List<PaymentClearingIssueDTO> issues) {
+        Map<Long, Payment> payments = paymentRepository.findAllById(chunk.stream().map(Match::paymentId).toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+        int cashed = 0;
+        int rejected = 0;
+        Map<Long, BigDecimal> restoredByOrder = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (Match match : chunk) {
+            Payment payment = payments.get(match.paymentId());
+            if (payment == null || payment.getStatus() != PaymentStatus.PENDING) {
+                issues.add(issue(match.line(), PaymentClearingOutcome.ALREADY_PROCESSED, match.paymentId(),
+                        payment == null ? "Payment no longer exists" : "Payment is already " + payment.getStatus()));
+                continue;
+            }
+
+            // Same transitions as PaymentService.updatePaymentStatus
+            payment.setStatus(match.line().status());
+            if (match.line().status() == PaymentStatus.CASHED) {
+                payment.setCashDate(match.line().date() != null ? match.line().date() : today);
+                cashed++;
+            } else {
+                restoredByOrder.merge(payment.getOrder().getId(), payment.getAmount(), BigDecimal::add);
+                rejected++;
+            }
+            outboxService.paymentStatusChanged(PaymentStatusChangedEvent.of(payment, PaymentStatus.PENDING));
+        }
+
+        // One update per order, however many of its payments bounced
+        restoredByOrder.forEach(orderRepository::restoreRemainingAmount);
+        // Payment updates are flushed at commit, in JDBC batches
+        return new int[]{cashed, rejected};
+    }
+
+    private static void failChunk(List<Match> chunk, PaymentClearingReportDTO report, RuntimeException e) {
+        for (Match match : chunk) {
+            report.getIssues().add(issue(match.line(), PaymentClearingOutcome.FAILED, match.paymentId(),
+                    "Chunk rolled back: " + e.getMessage()));
+        }
+    }
+
+    private static PaymentClearingIssueDTO issue(ClearingLine line, PaymentClearingOutcome outcome, Long paymentId, String error) {
+        return new PaymentClearingIssueDTO(line.lineNumber(), line.reference(), outcome, paymentId, error);
+    }
+
+    // Bank statements differ from what was typed at the counter in case and spacing
+    private static String normalize(String value) {
+        return value == null ? "" : WHITESPACE.matcher(value.strip()).replaceAll(" ").toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,21 +1,28 @@
 package org.example.demo.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.demo.aop.RetryOnConflict;
 import org.example.demo.dto.request.PaymentRequestDTO;
 import org.example.demo.dto.request.PaymentStatusUpdateDTO;
 import org.example.demo.dto.response.PaymentResponseDTO;
+import org.example.demo.dto.response.PaymentSummaryDTO;
 import org.example.demo.enums.OrderStatus;
 import org.example.demo.enums.PaymentStatus;
 import org.example.demo.enums.PaymentType;
+import org.example.demo.event.PaymentStatusChangedEvent;
+import org.example.demo.exception.CashLimitExceededException;
 import org.example.demo.exception.InvalidOrderException;
 import org.example.demo.exception.InvalidPaymentStatusException;
 import org.example.demo.exception.OrderStatusException;
 import org.example.demo.exception.ResourceNotFoundException;
 import org.example.demo.mappers.PaymentMapper;
-import org.example.demo.model.Order;
 import org.example.demo.model.Payment;
+import org.example.demo.repository.OrderPaymentSummary;
 import org.example.demo.repository.OrderRepository;
 import org.example.demo.repository.PaymentRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +30,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -31,28 +39,31 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final PaymentMapper paymentMapper;
+    private final OutboxService outboxService;
 
     private static final BigDecimal CASH_LIMIT = new BigDecimal("20000"); 
+    private static final String PAYMENT_NUMBER_CONSTRAINT = "uk_payments_order_number";
 
+    @RetryOnConflict
     @Transactional
     public PaymentResponseDTO addPayment(Long orderId, PaymentRequestDTO req) {
-        // Find order
-        Order order = orderRepository.findById(orderId)
+        // Order status, remaining amount and last payment number in one query
+        OrderPaymentSummary summary = paymentRepository.findSummaryByOrderId(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order with id " + orderId + " not found"));
 
         // Validate order status
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new OrderStatusException("Cannot add payment. Only PENDING orders can receive payments. Current status: " + order.getStatus());
+        if (summary.orderStatus() != OrderStatus.PENDING) {
+            throw new OrderStatusException("Cannot add payment. Only PENDING orders can receive payments. Current status: " + summary.orderStatus());
         }
 
         // Validate payment amount doesn't exceed remaining amount
-        if (req.getAmount().compareTo(order.getRemainingAmount()) > 0) {
-            throw new InvalidOrderException("Payment amount (" + req.getAmount() + " DH) exceeds remaining amount (" + order.getRemainingAmount() + " DH)");
+        if (req.getAmount().compareTo(summary.remainingAmount()) > 0) {
+            throw new InvalidOrderException("Payment amount (" + req.getAmount() + " DH) exceeds remaining amount (" + summary.remainingAmount() + " DH)");
         }
 
         // Validate ESPECES limit
         if (req.getPaymentType() == PaymentType.CASH && req.getAmount().compareTo(CASH_LIMIT) > 0) {
-            throw new InvalidOrderException("Cash payment exceeds legal limit of 20,000 DH (Article 193 CGI)");
+            throw new CashLimitExceededException("Cash payment exceeds legal limit of 20,000 DH (Article 193 CGI)");
         }
 
         // Validate CHEQUE requirements
@@ -72,10 +83,6 @@ public class PaymentService {
             }
         }
 
-        // Calculate next payment number
-        long paymentCount = paymentRepository.countByOrder(order);
-        Integer nextPaymentNumber = (int) (paymentCount + 1);
-
         // Determine payment status
         PaymentStatus status;
         if (req.getPaymentType() == PaymentType.CASH) {
@@ -84,11 +91,23 @@ public class PaymentService {
             status = PaymentStatus.PENDING;
         }
 
-        // Create payment
+        // Update order remaining amount; the checks above only saw a snapshot, so the decrement is
+        // conditional and fails if a concurrent payment has taken the remaining amount, or a
+        // confirm/cancel/reject has moved the order out of PENDING, since
+        BigDecimal amount = req.getAmount().setScale(2, RoundingMode.HALF_UP);
+        if (orderRepository.deductRemainingAmount(orderId, amount) == 0) {
+            OrderStatus currentStatus = orderRepository.findStatusById(orderId);
+            if (currentStatus != OrderStatus.PENDING) {
+                throw new OrderStatusException("Cannot add payment. Only PENDING orders can receive payments. Current status: " + currentStatus);
+            }
+            throw new InvalidOrderException("Payment amount (" + amount + " DH) exceeds remaining amount");
+        }
+
+        // Create payment against a reference to the order, without loading it
         Payment payment = Payment.builder()
-                .order(order)
-                .paymentNumber(nextPaymentNumber)
-                .amount(req.getAmount().setScale(2, RoundingMode.HALF_UP))
+                .order(orderRepository.getReferenceById(orderId))
+                .paymentNumber(summary.nextPaymentNumber())
+                .amount(amount)
                 .paymentType(req.getPaymentType())
                 .paymentDate(LocalDateTime.now())
                 .status(status)
@@ -98,21 +117,22 @@ public class PaymentService {
                 .cashDate(status == PaymentStatus.CASHED ? java.time.LocalDate.now() : null)
                 .build();
 
-        // Update order remaining amount
-        BigDecimal newRemainingAmount = order.getRemainingAmount().subtract(req.getAmount()).setScale(2, RoundingMode.HALF_UP);
-        order.setRemainingAmount(newRemainingAmount);
-
-        // Save payment and order
-        Payment savedPayment = paymentRepository.save(payment);
-        orderRepository.save(order);
+        // Save payment; flushed here so a duplicate payment number surfaces as a retryable conflict
+        Payment savedPayment = saveNewPayment(payment);
+        // Cash is cashed as it is taken, without a later status update, so it is announced here
+        if (savedPayment.getStatus() == PaymentStatus.CASHED) {
+            outboxService.paymentStatusChanged(PaymentStatusChangedEvent.of(savedPayment, null));
+        }
 
         // Map to response
         PaymentResponseDTO response = paymentMapper.toResponse(savedPayment);
-        response.setRemainingAmount(newRemainingAmount);
+        // Read back after the update: a concurrent payment may have been deducted since the summary was read
+        response.setRemainingAmount(orderRepository.findRemainingAmountById(orderId));
 
         return response;
     }
 
+    @RetryOnConflict
     @Transactional
     public PaymentResponseDTO updatePaymentStatus(Long paymentId, PaymentStatusUpdateDTO req) {
         // Find payment
@@ -142,19 +162,39 @@ public class PaymentService {
             payment.setCashDate(cashDate);
         } else if (req.getStatus() == PaymentStatus.REJECTED) {
             // If payment is rejected, add the amount back to the order's remaining amount
-            Order order = payment.getOrder();
-            BigDecimal newRemainingAmount = order.getRemainingAmount().add(payment.getAmount()).setScale(2, RoundingMode.HALF_UP);
-            order.setRemainingAmount(newRemainingAmount);
-            orderRepository.save(order);
+            orderRepository.restoreRemainingAmount(payment.getOrder().getId(), payment.getAmount());
         }
 
         // Save updated payment
         Payment updatedPayment = paymentRepository.save(payment);
+        outboxService.paymentStatusChanged(PaymentStatusChangedEvent.of(updatedPayment, PaymentStatus.PENDING));
 
         // Map to response
         PaymentResponseDTO response = paymentMapper.toResponse(updatedPayment);
-        response.setRemainingAmount(updatedPayment.getOrder().getRemainingAmount());
+        response.setRemainingAmount(orderRepository.findRemainingAmountById(updatedPayment.getOrder().getId()));
 
         return response;
     }
+
+    private Payment saveNewPayment(Payment payment) {
+        try {
+            return paymentRepository.saveAndFlush(payment);
+        } catch (DataIntegrityViolationException e) {
+            // Another payment took this number between the summary read and the insert
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(PAYMENT_NUMBER_CONSTRAINT)) {
+                throw new ConcurrencyFailureException("Payment number " + payment.getPaymentNumber() + " already taken", e);
+            }
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentSummaryDTO getPaymentSummary(Long orderId) {
+        OrderPaymentSummary summary = paymentRepository.findSummaryByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order with id " + orderId + " not found"));
+        return new PaymentSummaryDTO(summary.orderId(), summary.nextPaymentNumber(),
+                summary.cashedTotal(), summary.pendingTotal(), summary.remainingAmount());
+    }
 }
@@ -0,0 +1,76 @@
+package org.example.demo.service;
+
+import org.example.demo.enums.CustomerTier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Immutable discount/VAT rules, built once from configuration and shared by every order
+@Component
+public class PricingRules {
+
+    private static final Pattern PROMO_CODE = Pattern.compile("PROMO-[A-Z0-9]{4}");
+
+    private final Map<CustomerTier, TierRule> tierRules;
+    private final BigDecimal promoRate;
+    private final BigDecimal vatRate;
+
+    public PricingRules(@Value("${app.pricing.silver.min-subtotal:500}") BigDecimal silverMinSubtotal,
+                        @Value("${app.pricing.silver.rate:0.05}") BigDecimal silverRate,
+                        @Value("${app.pricing.gold.min-subtotal:800}") BigDecimal goldMinSubtotal,
+                        @Value("${app.pricing.gold.rate:0.10}") BigDecimal goldRate,
+                        @Value("${app.pricing.platinum.min-subtotal:1200}") BigDecimal platinumMinSubtotal,
+                        @Value("${app.pricing.platinum.rate:0.15}") BigDecimal platinumRate,
+                        @Value("${app.pricing.promo-rate:0.05}") BigDecimal promoRate,
+                        @Value("${app.vat.rate:0.20}") BigDecimal vatRate) {
+        Map<CustomerTier, TierRule> rules = new EnumMap<>(CustomerTier.class);
+        rules.put(CustomerTier.SILVER, new TierRule(silverMinSubtotal, silverRate));
+        rules.put(CustomerTier.GOLD, new TierRule(goldMinSubtotal, goldRate));
+        rules.put(CustomerTier.PLATINUM, new TierRule(platinumMinSubtotal, platinumRate));
+        this.tierRules = Collections.unmodifiableMap(rules);
+        this.promoRate = promoRate;
+        this.vatRate = vatRate;
+    }
+
+    public static PricingRules defaults() {
+        return new PricingRules(new BigDecimal("500"), new BigDecimal("0.05"),
+                new BigDecimal("800"), new BigDecimal("0.10"),
+                new BigDecimal("1200"), new BigDecimal("0.15"),
+                new BigDecimal("0.05"), new BigDecimal("0.20"));
+    }
+
+    public boolean isValidPromoCode(String promoCode) {
+        return promoCode != null && PROMO_CODE.matcher(promoCode).matches();
+    }
+
+    public BigDecimal loyaltyDiscount(CustomerTier tier, BigDecimal subtotal) {
+        TierRule rule = tierRules.get(tier);
+        if (rule == null || subtotal.compareTo(rule.minSubtotal()) < 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return subtotal.multiply(rule.rate()).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // subtotal must already be at scale 2 (sum of rounded line totals); every result is at scale 2
+    public PriceBreakdown price(CustomerTier tier, BigDecimal subtotal, boolean promoApplied) {
+        BigDecimal discount = loyaltyDiscount(tier, subtotal);
+        if (promoApplied) {
+            discount = discount.add(subtotal.multiply(promoRate).setScale(2, RoundingMode.HALF_UP));
+        }
+        BigDecimal taxable = subtotal.subtract(discount);
+        BigDecimal vat = taxable.multiply(vatRate).setScale(2, RoundingMode.HALF_UP);
+        return new PriceBreakdown(discount, vat, taxable.add(vat));
+    }
+
+    public record TierRule(BigDecimal minSubtotal, BigDecimal rate) {
+    }
+
+    public record PriceBreakdown(BigDecimal discount, BigDecimal vat, BigDecimal total) {
+    }
+}
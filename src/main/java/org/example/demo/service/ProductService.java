@@ -1,17 +1,31 @@
 package org.example.demo.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.demo.cache.CacheConfig;
 import org.example.demo.dto.request.ProductRequestDTO;
 import org.example.demo.dto.request.ProductRequestUpdateDTO;
 import org.example.demo.dto.response.ProductResponseDTO;
+import org.example.demo.dto.response.StockMovementResponseDTO;
 import org.example.demo.exception.DuplicateResourceException;
 import org.example.demo.exception.ResourceNotFoundException;
 import org.example.demo.mappers.ProductMapper;
 import org.example.demo.model.Product;
 import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.StockMovementRepository;
+import org.example.demo.search.ProductSearchIndex;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -19,27 +33,45 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final StockReservationService stockReservationService;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductSearchIndex productSearchIndex;
+
+    private static final int MAX_SEARCH_RESULTS = 100;
 
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
     public ProductResponseDTO createProduct(ProductRequestDTO req) {
         if (productRepository.existsByName(req.getName())) {
             throw new DuplicateResourceException("Product with name '" + req.getName() + "' already exists");
         }
         Product product = productMapper.toEntity(req);
         Product savedProduct = productRepository.save(product);
-        return productMapper.toResponse(savedProduct);
+        productSearchIndex.index(savedProduct);
+        // The initial stock is the opening snapshot, there are no movements yet
+        return productMapper.toResponse(savedProduct, savedProduct.getStockQuantity());
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES, key = "#pageable")
     public Page<ProductResponseDTO> getAllProducts(Pageable pageable) {
         Page<Product> productPage = productRepository.findByIsDeletedFalse(pageable);
-        return productPage.map(productMapper::toResponse);
+        // Availability of the whole page in one query
+        Map<Long, Integer> available = stockReservationService.available(productPage.map(Product::getId).getContent());
+        return productPage.map(p -> productMapper.toResponse(p, available.getOrDefault(p.getId(), p.getStockQuantity())));
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponseDTO getProductById(Long id) {
         return productRepository.findById(id)
-                .map(productMapper::toResponse)
+                .map(this::toResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("Product with id " + id + " not found"));
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    })
+    // Field update and stock adjustment commit or roll back together; the index only sees a committed update
+    @Transactional
     public ProductResponseDTO updateProduct(Long id, ProductRequestUpdateDTO req) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product with id " + id + " not found"));
@@ -51,17 +83,69 @@ public class ProductService {
         }
         productMapper.updateEntity(product, req);
         Product updatedProduct = productRepository.save(product);
-        return productMapper.toResponse(updatedProduct);
+        ProductResponseDTO response = req.getStockQuantity() != null
+                ? productMapper.toResponse(updatedProduct, stockReservationService.adjustTo(id, req.getStockQuantity()))
+                : toResponse(updatedProduct);
+        afterCommit(() -> productSearchIndex.index(updatedProduct));
+        return response;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    })
     public ProductResponseDTO deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product with id " + id + " not found"));
         product.setIsDeleted(true);
         productRepository.save(product);
-        return productMapper.toResponse(product);
+        productSearchIndex.remove(id);
+        return toResponse(product);
     }
 
-}
+    // Ranked matches on name and description from the in-memory index; only the hits are read from the database
+    public List<ProductResponseDTO> searchProducts(String query, int limit) {
+        List<ProductSearchIndex.Hit> hits = productSearchIndex.search(query, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = hits.stream().map(ProductSearchIndex.Hit::productId).toList();
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            products.put(product.getId(), product);
+        }
+        Map<Long, Integer> available = stockReservationService.available(ids);
+        // Keep the index ranking; a product deleted through another node may still be indexed until the next rebuild
+        return ids.stream()
+                .map(products::get)
+                .filter(product -> product != null && !product.getIsDeleted())
+                .map(product -> productMapper.toResponse(product, available.getOrDefault(product.getId(), product.getStockQuantity())))
+                .toList();
+    }
+
+    // Stock history, newest first
+    public Page<StockMovementResponseDTO> getStockMovements(Long id, Pageable pageable) {
+        if (!productRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Product with id " + id + " not found");
+        }
+        return stockMovementRepository.findByProductIdOrderByIdDesc(id, pageable).map(productMapper::toResponse);
+    }
 
+    // Runs the action once the current transaction has committed, or right away outside a transaction
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 
+    private ProductResponseDTO toResponse(Product product) {
+        return productMapper.toResponse(product, stockReservationService.available(product.getId()));
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.demo.dto.response.SalesReportRowDTO;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.SalesDimension;
+import org.example.demo.exception.InvalidReportRequestException;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductSalesDailyRollupRepository;
+import org.example.demo.repository.SalesDailyRollupRepository;
+import org.example.demo.repository.SalesTotals;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Revenue reports read from the sales rollups only, never from orders and order_items
+@Service
+@RequiredArgsConstructor
+public class SalesReportService {
+
+    private static final int MAX_DAYS = 3660;
+    private static final int MAX_PRODUCTS = 1000;
+
+    private final SalesDailyRollupRepository salesRepository;
+    private final ProductSalesDailyRollupRepository productSalesRepository;
+    private final ProductRepository productRepository;
+    private final SalesRollupAggregator salesRollupAggregator;
+
+    @Transactional(readOnly = true)
+    public List<SalesReportRowDTO> getSales(SalesDimension groupBy, LocalDate from, LocalDate to,
+                                            OrderStatus status, CustomerTier tier, int limit) {
+        validateRange(from, to);
+        return switch (groupBy) {
+            case DAY -> toRows(salesRepository.totalsByDay(from, to, status, tier));
+            case TIER -> toRows(salesRepository.totalsByTier(from, to, status, tier));
+            case STATUS -> toRows(salesRepository.totalsByStatus(from, to, status, tier));
+            case PRODUCT -> productRows(productSalesRepository.totalsByProduct(from, to, status, tier,
+                    PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_PRODUCTS))));
+        };
+    }
+
+    // Recomputes the rollups of the given days from the orders table
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return salesRollupAggregator.rebuild(from, to);
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new InvalidReportRequestException("from and to are required, with from <= to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new InvalidReportRequestException("Date range cannot exceed " + MAX_DAYS + " days");
+        }
+    }
+
+    private static List<SalesReportRowDTO> toRows(List<SalesTotals> totals) {
+        return totals.stream()
+                .map(row -> new SalesReportRowDTO(row.key().toString(), row.key().toString(),
+                        row.orders(), row.quantity(), row.revenue()))
+                .toList();
+    }
+
+    private List<SalesReportRowDTO> productRows(List<SalesTotals> totals) {
+        // Names of the returned page only, in one query
+        Map<Long, String> names = new HashMap<>();
+        for (Product product : productRepository.findAllById(totals.stream().map(row -> (Long) row.key()).toList())) {
+            names.put(product.getId(), product.getName());
+        }
+        return totals.stream()
+                .map(row -> new SalesReportRowDTO(row.key().toString(), names.get((Long) row.key()),
+                        row.orders(), row.quantity(), row.revenue()))
+                .toList();
+    }
+}
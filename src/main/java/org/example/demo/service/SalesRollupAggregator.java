@@ -0,0 +1,338 @@
+package org.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.event.OrderStatusChangedEvent;
+import org.example.demo.model.ProductSalesDailyDelta;
+import org.example.demo.model.ProductSalesDailyRollup;
+import org.example.demo.model.SalesDailyDelta;
+import org.example.demo.model.SalesDailyRollup;
+import org.example.demo.repository.DailyProductSalesTotals;
+import org.example.demo.repository.DailySalesTotals;
+import org.example.demo.repository.OrderItemRepository;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.ProductSalesDailyDeltaRepository;
+import org.example.demo.repository.ProductSalesDailyRollupRepository;
+import org.example.demo.repository.SalesDailyDeltaRepository;
+import org.example.demo.repository.SalesDailyRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+// Keeps the sales_daily and sales_daily_products rollups current from order status changes.
+// Each change is recorded as pending delta rows (sales_daily_deltas, sales_daily_product_deltas) in the
+// transaction of the status change, then applied periodically, summed per bucket (day, tier, status and
+// product), one UPDATE per touched bucket, so busy days do not turn their rollup rows into hot spots and
+// deltas survive a crash until a flush has applied them.
+// A status change moves the order's amounts out of the old status bucket into the new one.
+@Slf4j
+@Component
+public class SalesRollupAggregator {
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final SalesDailyRollupRepository salesRepository;
+    private final ProductSalesDailyRollupRepository productSalesRepository;
+    private final SalesDailyDeltaRepository salesDeltaRepository;
+    private final ProductSalesDailyDeltaRepository productSalesDeltaRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    // The deletes and the order aggregates of a rebuild chunk must all see one snapshot
+    private final TransactionTemplate rebuildTemplate;
+    private final int rebuildParallelism;
+    private final int rebuildDaysPerTask;
+    // Serializes flushes and rebuilds on this node
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public SalesRollupAggregator(SalesDailyRollupRepository salesRepository,
+                                 ProductSalesDailyRollupRepository productSalesRepository,
+                                 SalesDailyDeltaRepository salesDeltaRepository,
+                                 ProductSalesDailyDeltaRepository productSalesDeltaRepository,
+                                 OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.sales.rebuild-parallelism:4}") int rebuildParallelism,
+                                 @Value("${app.sales.rebuild-days-per-task:31}") int rebuildDaysPerTask) {
+        this.salesRepository = salesRepository;
+        this.productSalesRepository = productSalesRepository;
+        this.salesDeltaRepository = salesDeltaRepository;
+        this.productSalesDeltaRepository = productSalesDeltaRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.rebuildParallelism = Math.max(rebuildParallelism, 1);
+        this.rebuildDaysPerTask = Math.max(rebuildDaysPerTask, 1);
+    }
+
+    // Runs in the transaction of the status change, so the deltas commit or roll back with it
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        List<SalesDailyDelta> sales = new ArrayList<>(2);
+        List<ProductSalesDailyDelta> productSales = new ArrayList<>();
+        if (event.previousStatus() != null) {
+            record(event, event.previousStatus(), -1, sales, productSales);
+        }
+        record(event, event.status(), 1, sales, productSales);
+        salesDeltaRepository.saveAll(sales);
+        productSalesDeltaRepository.saveAll(productSales);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sales.flush-interval:PT5S}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            boolean more;
+            do {
+                more = transactionTemplate.execute(this::flushBatch);
+            } while (more);
+        } catch (RuntimeException e) {
+            // The failed batch was rolled back with its deltas, so the next flush applies them again; this
+            // also covers two nodes inserting the same new bucket, where the loser updates the winner's row
+            log.warn("Sales rollup flush failed, will retry", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Recomputes the rollups of the days from..to (inclusive) from the orders. The range is split into
+    // chunks of rebuildDaysPerTask days rebuilt in parallel, each in its own transaction, so a failed
+    // chunk leaves the others rebuilt. Each chunk drops the pending deltas of its days in the snapshot it
+    // reads the orders from: a change committed before it is counted from the orders, one committed after
+    // it is left as a delta for the next flush. Returns the number of rollup rows written.
+    public int rebuild(LocalDate from, LocalDate to) {
+        writeLock.lock();
+        ForkJoinPool pool = new ForkJoinPool(rebuildParallelism);
+        try {
+            return pool.invoke(new RebuildTask(from, to.plusDays(1)));
+        } finally {
+            pool.shutdown();
+            writeLock.unlock();
+        }
+    }
+
+    private static void record(OrderStatusChangedEvent event, OrderStatus status, int sign,
+                               List<SalesDailyDelta> sales, List<ProductSalesDailyDelta> productSales) {
+        LocalDate day = event.orderDate().toLocalDate();
+        sales.add(SalesDailyDelta.builder()
+                .salesDate(day)
+                .tier(event.tier())
+                .status(status)
+                .orders((long) sign)
+                .subtotal(signed(event.subtotal(), sign))
+                .discount(signed(event.discount(), sign))
+                .total(signed(event.total(), sign))
+                .build());
+        for (OrderStatusChangedEvent.Line line : event.lines()) {
+            productSales.add(ProductSalesDailyDelta.builder()
+                    .salesDate(day)
+                    .productId(line.productId())
+                    .tier(event.tier())
+                    .status(status)
+                    .lines((long) sign)
+                    .quantity((long) sign * line.quantity())
+                    .revenue(signed(line.revenue(), sign))
+                    .build());
+        }
+    }
+
+    // Applies up to FLUSH_BATCH_SIZE of the oldest deltas of each rollup; returns whether more may be waiting
+    private boolean flushBatch(TransactionStatus status) {
+        List<SalesDailyDelta> salesRows = salesDeltaRepository.findAllByOrderByIdAsc(PageRequest.of(0, FLUSH_BATCH_SIZE));
+        List<ProductSalesDailyDelta> productRows =
+                productSalesDeltaRepository.findAllByOrderByIdAsc(PageRequest.of(0, FLUSH_BATCH_SIZE));
+        if (salesRows.isEmpty() && productRows.isEmpty()) {
+            return false;
+        }
+
+        // Claim the deltas by deleting them: when another node flushes the same rows first, a count comes
+        // up short and this batch is rolled back instead of being applied twice
+        if (!claim(salesRows.stream().map(SalesDailyDelta::getId).toList(), salesDeltaRepository::deleteByIds)
+                || !claim(productRows.stream().map(ProductSalesDailyDelta::getId).toList(),
+                        productSalesDeltaRepository::deleteByIds)) {
+            log.info("Sales rollup flush lost its deltas to another node");
+            status.setRollbackOnly();
+            return false;
+        }
+
+        Map<SalesKey, SalesDelta> sales = new HashMap<>();
+        for (SalesDailyDelta row : salesRows) {
+            sales.merge(new SalesKey(row.getSalesDate(), row.getTier(), row.getStatus()),
+                    new SalesDelta(row.getOrders(), row.getSubtotal(), row.getDiscount(), row.getTotal()),
+                    SalesDelta::plus);
+        }
+        Map<ProductSalesKey, ProductSalesDelta> productSales = new HashMap<>();
+        for (ProductSalesDailyDelta row : productRows) {
+            productSales.merge(new ProductSalesKey(row.getSalesDate(), row.getProductId(), row.getTier(), row.getStatus()),
+                    new ProductSalesDelta(row.getLines(), row.getQuantity(), row.getRevenue()),
+                    ProductSalesDelta::plus);
+        }
+        // Create-then-cancel within one batch nets out to nothing
+        sales.values().removeIf(SalesDelta::isZero);
+        productSales.values().removeIf(ProductSalesDelta::isZero);
+        sales.forEach(this::applySales);
+        productSales.forEach(this::applyProductSales);
+        return salesRows.size() == FLUSH_BATCH_SIZE || productRows.size() == FLUSH_BATCH_SIZE;
+    }
+
+    private static boolean claim(List<Long> ids, ToIntFunction<List<Long>> delete) {
+        return ids.isEmpty() || delete.applyAsInt(ids) == ids.size();
+    }
+
+    private void applySales(SalesKey key, SalesDelta delta) {
+        if (salesRepository.addTotals(key.salesDate(), key.tier(), key.status(), delta.orders(),
+                delta.subtotal(), delta.discount(), delta.total()) == 0) {
+            salesRepository.save(SalesDailyRollup.builder()
+                    .salesDate(key.salesDate())
+                    .tier(key.tier())
+                    .status(key.status())
+                    .orders(delta.orders())
+                    .subtotal(delta.subtotal())
+                    .discount(delta.discount())
+                    .total(delta.total())
+                    .build());
+        }
+    }
+
+    private void applyProductSales(ProductSalesKey key, ProductSalesDelta delta) {
+        if (productSalesRepository.addTotals(key.salesDate(), key.productId(), key.tier(), key.status(),
+                delta.lines(), delta.quantity(), delta.revenue()) == 0) {
+            productSalesRepository.save(ProductSalesDailyRollup.builder()
+                    .salesDate(key.salesDate())
+                    .productId(key.productId())
+                    .tier(key.tier())
+                    .status(key.status())
+                    .lines(delta.lines())
+                    .quantity(delta.quantity())
+                    .revenue(delta.revenue())
+                    .build());
+        }
+    }
+
+    // Rebuilds [from, to) in one repeatable-read transaction
+    private int rebuildChunk(LocalDate from, LocalDate to) {
+        return rebuildTemplate.execute(status -> {
+            salesRepository.deleteBetween(from, to);
+            productSalesRepository.deleteBetween(from, to);
+            salesDeltaRepository.deleteBetween(from, to);
+            productSalesDeltaRepository.deleteBetween(from, to);
+
+            List<SalesDailyRollup> salesRows = new ArrayList<>();
+            for (DailySalesTotals row : orderRepository.aggregateDailySales(from.atStartOfDay(), to.atStartOfDay())) {
+                salesRows.add(SalesDailyRollup.builder()
+                        .salesDate(row.salesDate())
+                        .tier(row.tier())
+                        .status(row.status())
+                        .orders(row.orders())
+                        .subtotal(row.subtotal())
+                        .discount(row.discount())
+                        .total(row.total())
+                        .build());
+            }
+            List<ProductSalesDailyRollup> productRows = new ArrayList<>();
+            for (DailyProductSalesTotals row
+                    : orderItemRepository.aggregateDailyProductSales(from.atStartOfDay(), to.atStartOfDay())) {
+                productRows.add(ProductSalesDailyRollup.builder()
+                        .salesDate(row.salesDate())
+                        .productId(row.productId())
+                        .tier(row.tier())
+                        .status(row.status())
+                        .lines(row.lines())
+                        .quantity(row.quantity())
+                        .revenue(row.revenue())
+                        .build());
+            }
+            salesRepository.saveAll(salesRows);
+            productSalesRepository.saveAll(productRows);
+            return salesRows.size() + productRows.size();
+        });
+    }
+
+    // Halves the range until it is at most rebuildDaysPerTask days long; to is exclusive
+    private class RebuildTask extends RecursiveTask<Integer> {
+
+        private final LocalDate from;
+        private final LocalDate to;
+
+        RebuildTask(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            long days = ChronoUnit.DAYS.between(from, to);
+            if (days <= rebuildDaysPerTask) {
+                return days > 0 ? rebuildChunk(from, to) : 0;
+            }
+            LocalDate middle = from.plusDays(days / 2);
+            RebuildTask left = new RebuildTask(from, middle);
+            RebuildTask right = new RebuildTask(middle, to);
+            right.fork();
+            // Both halves always run to completion; a failure is rethrown once both are done
+            int rows;
+            try {
+                rows = left.compute();
+            } catch (RuntimeException e) {
+                right.quietlyJoin();
+                throw e;
+            }
+            return rows + right.join();
+        }
+    }
+
+    private static BigDecimal signed(BigDecimal amount, int sign) {
+        BigDecimal value = amount != null ? amount : BigDecimal.ZERO;
+        return sign < 0 ? value.negate() : value;
+    }
+
+    private record SalesKey(LocalDate salesDate, CustomerTier tier, OrderStatus status) {
+    }
+
+    private record SalesDelta(long orders, BigDecimal subtotal, BigDecimal discount, BigDecimal total) {
+
+        SalesDelta plus(SalesDelta other) {
+            return new SalesDelta(orders + other.orders, subtotal.add(other.subtotal),
+                    discount.add(other.discount), total.add(other.total));
+        }
+
+        boolean isZero() {
+            return orders == 0 && subtotal.signum() == 0 && discount.signum() == 0 && total.signum() == 0;
+        }
+    }
+
+    private record ProductSalesKey(LocalDate salesDate, Long productId, CustomerTier tier, OrderStatus status) {
+    }
+
+    private record ProductSalesDelta(long lines, long quantity, BigDecimal revenue) {
+
+        ProductSalesDelta plus(ProductSalesDelta other) {
+            return new ProductSalesDelta(lines + other.lines, quantity + other.quantity, revenue.add(other.revenue));
+        }
+
+        boolean isZero() {
+            return lines == 0 && quantity == 0 && revenue.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.demo.cache.CacheConfig;
+import org.example.demo.enums.StockMovementType;
+import org.example.demo.exception.ResourceNotFoundException;
+import org.example.demo.model.Order;
+import org.example.demo.model.OrderItem;
+import org.example.demo.model.StockMovement;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductStock;
+import org.example.demo.repository.StockMovementRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Stock is an append-only ledger (stock_movements) on top of a snapshot kept in products.stock_quantity
+// by StockSnapshotJob; availability is the snapshot plus the movements not folded into it yet.
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final CacheManager cacheManager;
+
+    public record StockShortage(Long productId, int available, int requested) {
+    }
+
+    // First half of a reservation: locks the products (id -> quantity) of a new order and returns the first
+    // one that does not have enough stock. The locks last until the caller's transaction ends, so the order
+    // is only saved once its stock is known to be there, and a shortage leaves nothing to roll back.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<StockShortage> checkAndLock(Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        // Only reservations can drive stock below zero, so only they serialize on the product rows
+        productRepository.lockAllByIdIn(ordered.keySet());
+        Map<Long, Integer> available = available(ordered.keySet());
+
+        for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+            int left = available.getOrDefault(entry.getKey(), 0);
+            if (left < entry.getValue()) {
+                return Optional.of(new StockShortage(entry.getKey(), left, entry.getValue()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Second half: books the quantities checked by checkAndLock, in the same transaction, for the saved order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long orderId, Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>(ordered.size());
+        ordered.forEach((productId, quantity) ->
+                movements.add(movement(productId, -quantity, StockMovementType.ORDER_RESERVE, orderId, now)));
+        stockMovementRepository.saveAll(movements);
+        evictCachedProducts(ordered.keySet());
+    }
+
+    // Gives the quantities of the order back to stock; appends only, no product row is locked
+    @Transactional
+    public void release(Order order, StockMovementType type) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) ->
+                movements.add(movement(productId, quantity, type, order.getId(), now)));
+        stockMovementRepository.saveAll(movements);
+        evictCachedProducts(quantities.keySet());
+    }
+
+    // Manual correction: books whatever movement brings the product to the given stock level
+    @Transactional
+    public int adjustTo(Long productId, int stockQuantity) {
+        if (productRepository.lockAllByIdIn(List.of(productId)).isEmpty()) {
+            throw new ResourceNotFoundException("Product with id " + productId + " not found");
+        }
+        int delta = stockQuantity - available(productId);
+        if (delta != 0) {
+            stockMovementRepository.save(
+                    movement(productId, delta, StockMovementType.ADJUSTMENT, null, LocalDateTime.now()));
+            evictCachedProducts(List.of(productId));
+        }
+        return stockQuantity;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> available(Collection<Long> productIds) {
+        Map<Long, Integer> available = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return available;
+        }
+        for (ProductStock stock : stockMovementRepository.findAvailableStock(productIds)) {
+            available.put(stock.productId(), Math.toIntExact(stock.quantity()));
+        }
+        return available;
+    }
+
+    @Transactional(readOnly = true)
+    public int available(Long productId) {
+        return available(Set.of(productId)).getOrDefault(productId, 0);
+    }
+
+    private static StockMovement movement(Long productId, int quantity, StockMovementType type, Long orderId,
+                                          LocalDateTime createdAt) {
+        return StockMovement.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .type(type)
+                .orderId(orderId)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    // Cached products show stock, so they must not outlive a stock change. Catalog pages are left alone:
+    // clearing them on every order would empty the page cache under exactly the traffic it is there for.
+    // Their stock figures may lag by up to the page TTL (app.cache.product-pages.spec); orders never rely
+    // on them, since reservations check stock under the product locks.
+    private void evictCachedProducts(Collection<Long> productIds) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            productIds.forEach(products::evict);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.model.StockMovement;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.StockMovementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Periodically folds unfolded stock movements into products.stock_quantity, so availability reads only
+// add up the movements of the last interval. Each batch flags the movements it read and adds them to the
+// snapshots in one transaction; movements committing meanwhile are left for the next batch. The job may
+// run on several nodes at once, so a batch only folds movements it managed to flag itself.
+@Slf4j
+@Component
+public class StockSnapshotJob {
+
+    private static final int MARK_CHUNK = 1000;
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public StockSnapshotJob(ProductRepository productRepository,
+                            StockMovementRepository stockMovementRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.stock.snapshot-batch-size:10000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    // Returns the number of movements folded
+    @Scheduled(fixedDelayString = "${app.stock.snapshot-interval:PT1M}")
+    public int snapshot() {
+        int folded = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(this::foldBatch);
+                folded += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            // The failed batch was rolled back as a whole and is picked up by the next run
+            log.warn("Stock snapshot failed after folding {} movements, will retry", folded, e);
+        }
+        return folded;
+    }
+
+    private int foldBatch(TransactionStatus status) {
+        List<StockMovement> movements = stockMovementRepository.findByFoldedFalseOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (movements.isEmpty()) {
+            return 0;
+        }
+
+        // Claim the movements first: the update skips those another node flagged after our read (it waits
+        // for that node's commit on rows it holds), so a short count means the batch is not ours to fold
+        List<Long> ids = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            ids.add(movement.getId());
+        }
+        int claimed = 0;
+        for (int from = 0; from < ids.size(); from += MARK_CHUNK) {
+            claimed += stockMovementRepository.markFolded(ids.subList(from, Math.min(from + MARK_CHUNK, ids.size())));
+        }
+        if (claimed != ids.size()) {
+            log.info("Stock snapshot batch claimed {} of {} movements, another node is folding", claimed, ids.size());
+            status.setRollbackOnly();
+            return 0;
+        }
+
+        // Product rows updated in id order, like reservations lock them
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockMovement movement : movements) {
+            deltas.merge(movement.getProductId(), movement.getQuantity(), Integer::sum);
+        }
+        deltas.forEach((productId, delta) -> {
+            if (delta != 0) {
+                productRepository.addToStockSnapshot(productId, delta);
+            }
+        });
+        return movements.size();
+    }
+}
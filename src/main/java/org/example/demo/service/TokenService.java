@@ -0,0 +1,104 @@
+package org.example.demo.service;
+
+import org.example.demo.enums.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+// Self-contained, HMAC-SHA256 signed access tokens: "<base64url(userId:role:expiresAt)>.<base64url(signature)>".
+// Verification needs only the shared secret, so any node can check a token without a session store.
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Mac prototype;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(@Value("${app.auth.token.secret:}") String secret,
+                        @Value("${app.auth.token.ttl:8h}") Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.prototype = secret.isEmpty() ? null : newMac(secret);
+    }
+
+    public boolean isConfigured() {
+        return prototype != null;
+    }
+
+    public String issue(Long userId, UserRole role) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        byte[] payload = (userId + ":" + role.name() + ":" + expiresAt).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // Empty when the token is malformed, tampered with or expired
+    public Optional<Claims> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            // Constant-time comparison so the signature cannot be guessed byte by byte
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || Long.parseLong(parts[2]) < clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Claims(Long.valueOf(parts[0]), UserRole.valueOf(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        if (prototype == null) {
+            throw new IllegalStateException("app.auth.token.secret must be set to use token authentication");
+        }
+        try {
+            // Mac is not thread-safe; cloning the keyed prototype avoids re-initialising the key
+            return ((Mac) prototype.clone()).doFinal(payload);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac newMac(String secret) {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) {
+            throw new IllegalStateException("app.auth.token.secret must be at least 32 bytes");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Claims(Long userId, UserRole role) {
+    }
+}
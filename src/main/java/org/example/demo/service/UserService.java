@@ -10,7 +10,6 @@ import org.example.demo.exception.UnauthorizedException;
 import org.example.demo.mappers.UserMapper;
 import org.example.demo.model.User;
 import org.example.demo.repository.UserRepository;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,6 +17,7 @@ import org.springframework.stereotype.Service;
 public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final PasswordHasher passwordHasher;
 
     public AuthResponseDTO register(RegisterRequestDTO req) {
         if (userRepository.existsByUserName(req.getUserName())) {
@@ -32,18 +32,14 @@ public class UserService {
 
     public  AuthResponseDTO login(LoginRequestDTO req) {
         User user=  userRepository.findByUserName(req.getUserName()).orElseThrow(() -> new ResourceNotFoundException(" user not found"));
-        if (!checkPaswword(req.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(user.getUserName(), req.getPassword(), user.getPassword())) {
             throw new UnauthorizedException(" invallid credentials");
         }
         return userMapper.toAuthResponse(user, "user login successfully");
     }
 
     public String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
-    }
-
-    public boolean checkPaswword(String password, String checkedPassword) {
-        return BCrypt.checkpw(password, checkedPassword);
+        return passwordHasher.hash(password);
     }
 
     public AuthResponseDTO getUserById(Long userId) {
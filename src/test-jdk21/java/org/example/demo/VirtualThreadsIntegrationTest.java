@@ -0,0 +1,260 @@
+package org.example.demo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.demo.dto.request.OrderItemRequestDTO;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.request.RegisterRequestDTO;
+import org.example.demo.enums.UserRole;
+import org.example.demo.exception.InsufficientStockException;
+import org.example.demo.model.Client;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.service.OrderService;
+import org.example.demo.service.StockReservationService;
+import org.example.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.math.BigDecimal;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The application with spring.threads.virtual.enabled=true, checking the thread-bound state it relies on:
+// the request bound by RequestContextHolder for AuthorizationAspect, the per-request SQL statement counter,
+// and transactions and pooled connections when far more requests run at once than there are connections.
+// Only compiled and run with the jdk21 profile: mvn -Pjdk21 test (needs JDK 21).
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=30000",
+        // Row locks wait like they do on PostgreSQL instead of failing after H2's default second
+        "spring.datasource.url=jdbc:h2:mem:microtech_erp;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "app.auth.bcrypt.wait-timeout=5s"})
+@ActiveProfiles("test")
+@Import(VirtualThreadsIntegrationTest.HandlerThreads.class)
+class VirtualThreadsIntegrationTest {
+
+    private static final int CONCURRENT_CALLS = 200;
+    private static final String PASSWORD = "virtual-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HandlerThreads handlerThreads;
+
+    @Test
+    void requests_ShouldRunOnVirtualThreadsAndBeAuthorizedAsTheirOwnUser() throws Exception {
+        // Arrange
+        Product product = saveProduct("Virtual Thread Keyboard", 10);
+        register("vt-admin", UserRole.ADMIN);
+        register("vt-client", UserRole.CLIENT);
+        HttpClient admin = login("vt-admin");
+        HttpClient client = login("vt-client");
+        String path = "/api/products/" + product.getId();
+        assertEquals(200, get(admin, path));
+        // The first read fills the product cache, so no later request issues more statements than it did
+        double statementsAlone = productStatements().max();
+        handlerThreads.clear();
+
+        // Act: admin and client requests interleaved, each on its own virtual thread
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            calls.add(() -> get(admin, path));
+            calls.add(() -> get(client, path));
+        }
+        List<Integer> statuses = runConcurrently(calls);
+
+        // Assert: a request checked against another request's user would let a client in or turn an admin away
+        for (int i = 0; i < statuses.size(); i += 2) {
+            assertEquals(200, statuses.get(i));
+            assertNotEquals(200, statuses.get(i + 1));
+        }
+        assertEquals(2 * CONCURRENT_CALLS, handlerThreads.virtual().size());
+        assertTrue(handlerThreads.virtual().stream().allMatch(Boolean::booleanValue));
+        // A counter shared between requests would add up statements of several requests
+        assertTrue(productStatements().max() <= statementsAlone,
+                "max " + productStatements().max() + " statements, " + statementsAlone + " alone");
+    }
+
+    @Test
+    void createOrder_WithMoreConcurrentOrdersThanConnections_ShouldSellEachUnitOnce() throws Exception {
+        // Arrange
+        int stock = 50;
+        Product product = saveProduct("Virtual Thread Mouse", stock);
+        Client client = clientRepository.save(Client.builder()
+                .fullName("Virtual Thread Client")
+                .email("virtual-threads@example.com")
+                .phone("0612345678")
+                .address("Casablanca")
+                .build());
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Void>> orders = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            orders.add(() -> {
+                try {
+                    orderService.createOrder(oneUnitOrder(client, product));
+                    created.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    refused.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+                return null;
+            });
+        }
+
+        // Act: 200 transactions on 4 connections
+        runConcurrently(orders);
+
+        // Assert: no connection wait timed out and no transaction saw another one's stock half-booked
+        assertEquals(List.of(), failures);
+        assertEquals(stock, created.get());
+        assertEquals(CONCURRENT_CALLS - stock, refused.get());
+        assertEquals(0, stockReservationService.available(product.getId()));
+    }
+
+    // One virtual thread per call, results in call order
+    private static <T> List<T> runConcurrently(List<Callable<T>> calls) throws Exception {
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Callable<T> call : calls) {
+                futures.add(executor.submit(call));
+            }
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private Product saveProduct(String name, int stock) {
+        return productRepository.save(Product.builder()
+                .name(name)
+                .description("Seeded for the virtual-thread test")
+                .unitPrice(new BigDecimal("25.00"))
+                .stockQuantity(stock)
+                .build());
+    }
+
+    private void register(String userName, UserRole role) {
+        RegisterRequestDTO req = new RegisterRequestDTO();
+        req.setUserName(userName);
+        req.setPassword(PASSWORD);
+        req.setRole(role);
+        userService.register(req);
+    }
+
+    // Session mode: the client keeps the JSESSIONID cookie for its later requests
+    private HttpClient login(String userName) throws Exception {
+        HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"userName\":\"" + userName + "\",\"password\":\"" + PASSWORD + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return http;
+    }
+
+    private int get(HttpClient http, String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private DistributionSummary productStatements() {
+        return meterRegistry.get("app.http.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/products/{id}")
+                .summary();
+    }
+
+    private static OrderRequestDTO oneUnitOrder(Client client, Product product) {
+        OrderItemRequestDTO item = new OrderItemRequestDTO();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        OrderRequestDTO req = new OrderRequestDTO();
+        req.setClientId(client.getId());
+        req.setOrderItems(List.of(item));
+        return req;
+    }
+
+    // Records whether each request reached the controllers on a virtual thread
+    @TestConfiguration
+    static class HandlerThreads implements WebMvcConfigurer, HandlerInterceptor {
+
+        private final List<Boolean> virtual = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            // Refused requests are forwarded to /error, which would count them twice
+            registry.addInterceptor(this).excludePathPatterns("/error");
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            virtual.add(Thread.currentThread().isVirtual());
+            return true;
+        }
+
+        List<Boolean> virtual() {
+            return virtual;
+        }
+
+        void clear() {
+            virtual.clear();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.demo.loadtest;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// OrderFlowLoadTest again with request handling on virtual threads, so one run measures both modes and writes
+// report-platform.json and report-virtual.json. Give it more users than Tomcat threads to see a difference:
+// mvn -Pjdk21,load-test test -Dloadtest.users=300 -Dserver.tomcat.threads.max=50
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.auth.bcrypt.wait-timeout=5s", "spring.threads.virtual.enabled=true"})
+class VirtualThreadOrderFlowLoadTest extends OrderFlowLoadTest {
+}
@@ -0,0 +1,75 @@
+package org.example.demo.aop;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.demo.exception.InsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MetricsAspect(meterRegistry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void timeServiceCall_ShouldRecordSuccessfulCall() {
+        // Act
+        service.succeed();
+
+        // Assert
+        assertEquals(1, meterRegistry.get("app.service")
+                .tag("service", "SampleService")
+                .tag("method", "succeed")
+                .tag("outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void timeServiceCall_ShouldCountBusinessRejections() {
+        // Act
+        assertThrows(InsufficientStockException.class, () -> service.reject());
+
+        // Assert
+        assertEquals(1, meterRegistry.get("app.service").tag("outcome", "InsufficientStockException").timer().count());
+        assertEquals(1.0, meterRegistry.get("app.business.rejections")
+                .tag("reason", "InsufficientStockException")
+                .counter().count());
+    }
+
+    @Test
+    void timeServiceCall_ShouldNotCountTechnicalFailuresAsRejections() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> service.fail());
+
+        // Assert
+        assertEquals(1, meterRegistry.get("app.service").tag("outcome", "IllegalStateException").timer().count());
+        assertNull(meterRegistry.find("app.business.rejections").counter());
+    }
+
+    @Service
+    static class SampleService {
+        public String succeed() {
+            return "ok";
+        }
+
+        public void reject() {
+            throw new InsufficientStockException("out of stock");
+        }
+
+        public void fail() {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.demo.aop;
+
+import org.example.demo.exception.ConcurrentUpdateException;
+import org.example.demo.exception.InvalidOrderException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryOnConflictAspectTest {
+
+    private SampleService target;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        target = new SampleService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RetryOnConflictAspect());
+        service = factory.getProxy();
+    }
+
+    @Test
+    void retry_ShouldSucceedAfterTransientConflicts() {
+        // Arrange
+        target.conflictsBeforeSuccess = 2;
+
+        // Act
+        String result = service.update();
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(3, target.calls.get());
+    }
+
+    @Test
+    void retry_ShouldGiveUpAfterMaxAttempts() {
+        // Arrange
+        target.conflictsBeforeSuccess = 10;
+
+        // Act & Assert
+        ConcurrentUpdateException exception = assertThrows(ConcurrentUpdateException.class, () -> service.update());
+        assertInstanceOf(OptimisticLockingFailureException.class, exception.getCause());
+        assertEquals(3, target.calls.get());
+    }
+
+    @Test
+    void retry_ShouldNotRetryBusinessErrors() {
+        // Act & Assert
+        assertThrows(InvalidOrderException.class, () -> service.reject());
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void retry_InsideCallerTransaction_ShouldLeaveRetryToCaller() {
+        // Arrange
+        target.conflictsBeforeSuccess = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act & Assert
+        try {
+            assertThrows(OptimisticLockingFailureException.class, () -> service.update());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, target.calls.get());
+    }
+
+    static class SampleService {
+        final AtomicInteger calls = new AtomicInteger();
+        int conflictsBeforeSuccess;
+
+        @RetryOnConflict
+        public String update() {
+            if (calls.incrementAndGet() <= conflictsBeforeSuccess) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "ok";
+        }
+
+        @RetryOnConflict
+        public void reject() {
+            calls.incrementAndGet();
+            throw new InvalidOrderException("invalid");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.demo.importer;
+
+import org.example.demo.enums.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvClearingFileReaderTest {
+
+    private static CsvClearingFileReader reader(String csv) throws IOException {
+        return new CsvClearingFileReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void next_readsClearedAndBouncedLines() throws IOException {
+        // Arrange
+        CsvClearingFileReader reader = reader("""
+                reference,bankName,amount,status,date
+                CHQ-001,Attijariwafa Bank,1500.00,CASHED,2024-03-01
+
+                VIR-002,BMCE,250,rejected,
+                """);
+
+        // Act
+        ClearingLine first = reader.next();
+        ClearingLine second = reader.next();
+
+        // Assert
+        assertEquals(2, first.lineNumber());
+        assertEquals("CHQ-001", first.reference());
+        assertEquals("Attijariwafa Bank", first.bankName());
+        assertEquals(new BigDecimal("1500.00"), first.amount());
+        assertEquals(PaymentStatus.CASHED, first.status());
+        assertEquals(LocalDate.of(2024, 3, 1), first.date());
+
+        assertEquals(4, second.lineNumber());
+        assertEquals(PaymentStatus.REJECTED, second.status());
+        assertNull(second.date());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_unreadableLines_shouldCarryAnError() throws IOException {
+        // Arrange
+        CsvClearingFileReader reader = reader("""
+                reference,bankName,amount,status,date
+                CHQ-001,BMCE,abc,CASHED,
+                CHQ-002,BMCE,10,PENDING,
+                CHQ-003,BMCE,10,CASHED,01/03/2024
+                """);
+
+        // Act & Assert
+        assertEquals("Invalid amount 'abc'", reader.next().error());
+        assertEquals("Status must be CASHED or REJECTED, got 'PENDING'", reader.next().error());
+        assertEquals("Invalid date '01/03/2024'", reader.next().error());
+    }
+
+    @Test
+    void constructor_wrongHeader_shouldThrow() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> reader("reference,amount\nCHQ-001,10\n"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.demo.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvOrderImportReaderTest {
+
+    private static CsvOrderImportReader reader(String csv) throws IOException {
+        return new CsvOrderImportReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void next_groupsConsecutiveRowsByReference() throws IOException {
+        // Arrange
+        CsvOrderImportReader reader = reader("""
+                reference,clientId,productId,quantity,promoCode
+                A-1,1,10,2,PROMO-AB12
+                A-1,1,11,1,
+                A-2,2,10,5,
+                """);
+
+        // Act
+        ImportedOrder first = reader.next();
+        ImportedOrder second = reader.next();
+
+        // Assert
+        assertEquals(1, first.index());
+        assertEquals("A-1", first.reference());
+        assertEquals(1L, first.request().getClientId());
+        assertEquals("PROMO-AB12", first.request().getPromoCode());
+        assertEquals(2, first.request().getOrderItems().size());
+        assertEquals(11L, first.request().getOrderItems().get(1).getProductId());
+
+        assertEquals("A-2", second.reference());
+        assertNull(second.request().getPromoCode());
+        assertEquals(5, second.request().getOrderItems().get(0).getQuantity());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_withoutReference_eachRowIsOneOrder() throws IOException {
+        // Arrange
+        CsvOrderImportReader reader = reader("""
+                reference,clientId,productId,quantity,promoCode
+                ,1,10,2,
+                ,1,11,1,
+                """);
+
+        // Act & Assert
+        assertEquals(1, reader.next().request().getOrderItems().size());
+        assertEquals(1, reader.next().request().getOrderItems().size());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_badNumber_onlyFailsThatOrder() throws IOException {
+        // Arrange
+        CsvOrderImportReader reader = reader("""
+                reference,clientId,productId,quantity,promoCode
+                A-1,1,ten,2,
+                A-2,1,10,2,
+                """);
+
+        // Act
+        ImportedOrder bad = reader.next();
+        ImportedOrder good = reader.next();
+
+        // Assert
+        assertNull(bad.request());
+        assertTrue(bad.error().startsWith("Line 2"));
+        assertNull(good.error());
+        assertEquals("A-2", good.reference());
+    }
+
+    @Test
+    void constructor_wrongHeader_throws() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> reader("client,product\n1,2\n"));
+    }
+}
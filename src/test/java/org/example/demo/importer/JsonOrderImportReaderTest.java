@@ -0,0 +1,76 @@
+package org.example.demo.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonOrderImportReaderTest {
+
+    private static JsonOrderImportReader reader(String json) throws IOException {
+        return new JsonOrderImportReader(new ObjectMapper(),
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void next_readsArrayOfOrders() throws IOException {
+        // Arrange
+        JsonOrderImportReader reader = reader("""
+                [
+                  {"reference": "A-1", "clientId": 1, "orderItems": [{"productId": 10, "quantity": 2}]},
+                  {"clientId": 2, "orderItems": [{"productId": 11, "quantity": 1}], "promoCode": "PROMO-AB12"}
+                ]
+                """);
+
+        // Act
+        ImportedOrder first = reader.next();
+        ImportedOrder second = reader.next();
+
+        // Assert
+        assertEquals("A-1", first.reference());
+        assertEquals(1L, first.request().getClientId());
+        assertEquals(2, second.index());
+        assertNull(second.reference());
+        assertEquals("PROMO-AB12", second.request().getPromoCode());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_readsNewlineDelimitedOrders() throws IOException {
+        // Arrange
+        JsonOrderImportReader reader = reader("""
+                {"clientId": 1, "orderItems": [{"productId": 10, "quantity": 2}]}
+                {"clientId": 2, "orderItems": [{"productId": 11, "quantity": 1}]}
+                """);
+
+        // Act & Assert
+        assertEquals(1L, reader.next().request().getClientId());
+        assertEquals(2L, reader.next().request().getClientId());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_badlyTypedField_onlyFailsThatOrder() throws IOException {
+        // Arrange
+        JsonOrderImportReader reader = reader("""
+                [
+                  {"reference": "A-1", "clientId": "abc", "orderItems": []},
+                  {"reference": "A-2", "clientId": 2, "orderItems": [{"productId": 11, "quantity": 1}]}
+                ]
+                """);
+
+        // Act
+        ImportedOrder bad = reader.next();
+        ImportedOrder good = reader.next();
+
+        // Assert
+        assertEquals("A-1", bad.reference());
+        assertNull(bad.request());
+        assertNotNull(bad.error());
+        assertEquals(2L, good.request().getClientId());
+    }
+}
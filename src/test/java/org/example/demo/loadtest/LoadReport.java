@@ -0,0 +1,105 @@
+package org.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Collects per-step latencies from all virtual users and renders throughput / percentile summaries
+class LoadReport {
+
+    private final Map<String, Step> steps = new ConcurrentSkipListMap<>();
+    private final long startedAt = System.nanoTime();
+    private volatile long finishedAt;
+
+    void record(String step, long nanos, boolean success) {
+        steps.computeIfAbsent(step, k -> new Step()).record(nanos, success);
+    }
+
+    void finish() {
+        finishedAt = System.nanoTime();
+    }
+
+    int totalErrors() {
+        return steps.values().stream().mapToInt(s -> s.errors.get()).sum();
+    }
+
+    List<Map<String, Object>> summary() {
+        double seconds = (finishedAt - startedAt) / 1_000_000_000.0;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        steps.forEach((name, step) -> {
+            long[] sorted = step.sortedLatencies();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("step", name);
+            row.put("requests", sorted.length);
+            row.put("errors", step.errors.get());
+            row.put("throughputPerSec", round(sorted.length / seconds));
+            row.put("p50Ms", percentileMs(sorted, 0.50));
+            row.put("p95Ms", percentileMs(sorted, 0.95));
+            row.put("p99Ms", percentileMs(sorted, 0.99));
+            row.put("maxMs", sorted.length == 0 ? 0.0 : round(sorted[sorted.length - 1] / 1_000_000.0));
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    String table() {
+        StringBuilder sb = new StringBuilder(String.format("%-16s %9s %7s %10s %9s %9s %9s %9s%n",
+                "step", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map<String, Object> row : summary()) {
+            sb.append(String.format("%-16s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("step"), row.get("requests"), row.get("errors"), row.get("throughputPerSec"),
+                    row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs")));
+        }
+        return sb.toString();
+    }
+
+    void writeJson(Path file, Map<String, Object> settings) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("durationSec", round((finishedAt - startedAt) / 1_000_000_000.0));
+        report.put("steps", summary());
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return round(sorted[Math.max(index, 0)] / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class Step {
+        private final List<Long> latencies = new ArrayList<>();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        synchronized void record(long nanos, boolean success) {
+            latencies.add(nanos);
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] values = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(values);
+            return values;
+        }
+    }
+}
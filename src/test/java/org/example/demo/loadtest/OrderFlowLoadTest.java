@@ -0,0 +1,189 @@
+package org.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.demo.dto.request.RegisterRequestDTO;
+import org.example.demo.enums.UserRole;
+import org.example.demo.model.Client;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Concurrent login -> browse -> order -> payment scenarios through the real controllers and AuthorizationAspect.
+// Excluded from the default build; run with: mvn -Pload-test test
+// With -Pjdk21 (JDK 21) VirtualThreadOrderFlowLoadTest repeats it with request handling on virtual threads
+@Tag("load")
+// Every user logs in at the same instant on a cold JVM, on whatever machine runs the build; the longer
+// BCrypt wait keeps that burst from being shed with 503s, which this test does not set out to measure
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.auth.bcrypt.wait-timeout=5s")
+@ActiveProfiles("test")
+class OrderFlowLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 16);
+    private static final int ITERATIONS = Integer.getInteger("loadtest.iterations", 50);
+    private static final int CLIENTS = 50;
+    private static final int PRODUCTS = 200;
+    private static final int LINES_PER_ORDER = 5;
+    private static final String PASSWORD = "loadtest-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private Environment environment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void orderFlow() throws Exception {
+        List<Long> clientIds = seedClients();
+        List<Long> productIds = seedProducts();
+        for (int u = 0; u < USERS; u++) {
+            RegisterRequestDTO admin = new RegisterRequestDTO();
+            admin.setUserName("admin" + u);
+            admin.setPassword(PASSWORD);
+            admin.setRole(UserRole.ADMIN);
+            userService.register(admin);
+        }
+
+        LoadReport report = new LoadReport();
+        ExecutorService pool = Executors.newFixedThreadPool(USERS);
+        List<Future<?>> users = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            String userName = "admin" + u;
+            users.add(pool.submit(() -> {
+                runUser(userName, clientIds, productIds, report);
+                return null;
+            }));
+        }
+        for (Future<?> user : users) {
+            user.get();
+        }
+        pool.shutdown();
+        report.finish();
+
+        // Spring Boot silently ignores the virtual-thread flag below Java 21, so record what actually ran
+        String threading = Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform";
+        System.out.println("threads: " + threading);
+        System.out.println(report.table());
+        report.writeJson(Path.of("target", "load-test", "report-" + threading + ".json"),
+                Map.of("users", USERS, "iterations", ITERATIONS, "linesPerOrder", LINES_PER_ORDER,
+                        "threading", threading, "javaVersion", Runtime.version().feature()));
+        assertEquals(0, report.totalErrors(), report.table());
+    }
+
+    private void runUser(String userName, List<Long> clientIds, List<Long> productIds, LoadReport report) throws Exception {
+        HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        String[] token = new String[1];
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            // Session mode keeps the JSESSIONID cookie; token mode (-Dapp.auth.mode=token) returns a bearer token
+            JsonNode login = call(http, report, null, "login", "POST", "/api/auth/login",
+                    Map.of("userName", userName, "password", PASSWORD));
+            if (login != null && login.hasNonNull("token")) {
+                token[0] = login.get("token").asText();
+            }
+
+            call(http, report, token[0], "listProducts", "GET", "/api/products?page=" + random.nextInt(10) + "&size=20", null);
+
+            List<Map<String, Object>> lines = new ArrayList<>();
+            for (int l = 0; l < LINES_PER_ORDER; l++) {
+                lines.add(Map.of("productId", productIds.get(random.nextInt(productIds.size())), "quantity", 1 + random.nextInt(3)));
+            }
+            JsonNode order = call(http, report, token[0], "createOrder", "POST", "/api/orders",
+                    Map.of("clientId", clientIds.get(random.nextInt(clientIds.size())), "orderItems", lines));
+            if (order == null) {
+                continue;
+            }
+
+            call(http, report, token[0], "addPayment", "POST", "/api/orders/" + order.get("id").asLong() + "/payments",
+                    Map.of("amount", new BigDecimal("50.00"), "paymentType", "CASH"));
+        }
+    }
+
+    // Returns the parsed body of a 2xx response, null otherwise
+    private JsonNode call(HttpClient http, LoadReport report, String token, String step, String method, String path, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body == null) {
+            request.GET();
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+
+        boolean success = response.statusCode() / 100 == 2;
+        report.record(step, elapsed, success);
+        return success ? objectMapper.readTree(response.body()) : null;
+    }
+
+    private List<Long> seedClients() {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(Client.builder()
+                    .fullName("Load Client " + i)
+                    .email("load" + i + "@example.com")
+                    .phone("0612345678")
+                    .address("Casablanca")
+                    .build());
+        }
+        return clientRepository.saveAll(clients).stream().map(Client::getId).toList();
+    }
+
+    private List<Long> seedProducts() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Product.builder()
+                    .name("Load Product " + i)
+                    .description("Seeded for the load test")
+                    .unitPrice(BigDecimal.valueOf(1000 + i * 25L, 2))
+                    .stockQuantity(1_000_000)
+                    .build());
+        }
+        return productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+}
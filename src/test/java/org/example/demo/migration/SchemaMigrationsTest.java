@@ -0,0 +1,80 @@
+package org.example.demo.migration;
+
+import org.example.demo.model.Client;
+import org.example.demo.repository.ClientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the migration commits its own transaction, as at startup
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(SchemaMigrations.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationsTest {
+
+    @Autowired
+    private SchemaMigrations schemaMigrations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Test
+    void migrate_WhenLegacyTotalSpentColumnExists_ShouldCopyItToCentsAndDropIt() {
+        // Arrange: the column as the pre-cents schema left it
+        jdbcTemplate.execute("ALTER TABLE clients ADD COLUMN total_spent DOUBLE PRECISION");
+        jdbcTemplate.update("INSERT INTO clients (id, full_name, email, phone, address, fidelity_level, total_orders, "
+                + "total_spent, is_active) VALUES (-1, 'Legacy Client', 'legacy@example.com', '0612345678', "
+                + "'Test Address', 'SILVER', 3, 1234.56, TRUE)");
+        jdbcTemplate.execute("ALTER TABLE clients ALTER COLUMN total_spent SET NOT NULL");
+
+        // Act
+        schemaMigrations.migrate();
+        schemaMigrations.migrate();
+
+        // Assert
+        Client legacy = clientRepository.findById(-1L).orElseThrow();
+        assertEquals(new BigDecimal("1234.56"), legacy.getTotalSpent());
+        Client created = clientRepository.save(Client.builder()
+                .fullName("New Client")
+                .email("new-after-migration@example.com")
+                .phone("0612345678")
+                .address("Test Address")
+                .build());
+        assertNotNull(created.getId());
+
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void migrate_WhenIdsPredateTheSequence_ShouldMoveTheSequencePastThem() {
+        // Arrange: a client inserted while ids still came from an identity column
+        jdbcTemplate.update("INSERT INTO clients (id, full_name, email, phone, address, fidelity_level, total_orders, "
+                + "total_spent_cents, is_active) VALUES (5000, 'Legacy Client', 'legacy-id@example.com', "
+                + "'0612345678', 'Test Address', 'BASIC', 0, 0, TRUE)");
+
+        // Act
+        schemaMigrations.migrate();
+        long afterFirst = jdbcTemplate.queryForObject("SELECT nextval('clients_seq')", Long.class);
+        schemaMigrations.migrate();
+        long afterSecond = jdbcTemplate.queryForObject("SELECT nextval('clients_seq')", Long.class);
+
+        // Assert: the next blocks start after the legacy id, and a second run never moves the sequence back
+        assertTrue(afterFirst - 49 > 5000);
+        assertTrue(afterSecond > afterFirst);
+        assertEquals(50, jdbcTemplate.queryForObject("SELECT increment FROM information_schema.sequences "
+                + "WHERE LOWER(sequence_name) = 'clients_seq'", Long.class));
+
+        clientRepository.deleteAll();
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.model.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ClientRepositoryTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            clients.add(Client.builder()
+                    .fullName("Client " + i)
+                    .email("client" + i + "@example.com")
+                    .phone("0612345678")
+                    .address("Address " + i)
+                    .fidelityLevel(i % 3 == 0 ? CustomerTier.GOLD : CustomerTier.BASIC)
+                    .isActive(i % 2 == 0)
+                    .build());
+        }
+        clientRepository.saveAll(clients);
+    }
+
+    @Test
+    void findByFilters_WithNullFilters_ShouldReturnEveryClient() {
+        // Act
+        Page<Client> page = clientRepository.findByFilters(null, null, PageRequest.of(0, 5));
+
+        // Assert
+        assertEquals(12, page.getTotalElements());
+        assertEquals(5, page.getContent().size());
+    }
+
+    @Test
+    void findByFilters_ShouldCombineTierAndActiveFilters() {
+        // Act
+        Page<Client> page = clientRepository.findByFilters(CustomerTier.GOLD, true, PageRequest.of(0, 10));
+
+        // Assert: i = 0 and 6
+        assertEquals(2, page.getTotalElements());
+        assertTrue(page.getContent().stream()
+                .allMatch(c -> c.getFidelityLevel() == CustomerTier.GOLD && c.getIsActive()));
+    }
+
+    @Test
+    void findByFiltersAfter_ShouldWalkClientsInIdOrder() {
+        // Act
+        List<Long> seen = new ArrayList<>();
+        List<Client> page = clientRepository.findByFiltersAfter(0L, null, true, PageRequest.of(0, 4));
+        while (!page.isEmpty()) {
+            page.forEach(c -> seen.add(c.getId()));
+            page = clientRepository.findByFiltersAfter(seen.get(seen.size() - 1), null, true, PageRequest.of(0, 4));
+        }
+
+        // Assert
+        assertEquals(6, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+
+    @Test
+    void streamByFilters_ShouldReturnMatchingClients() {
+        // Act
+        long count;
+        try (Stream<Client> clients = clientRepository.streamByFilters(CustomerTier.BASIC, null)) {
+            count = clients.count();
+        }
+
+        // Assert
+        assertEquals(8, count);
+    }
+
+    @Test
+    void addOrderStats_ShouldAddDeltasAndKeepDateBounds() {
+        // Arrange
+        Client client = clientRepository.findByEmail("client1@example.com").orElseThrow();
+        LocalDateTime march = LocalDateTime.of(2024, 3, 1, 10, 0);
+        LocalDateTime may = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        // Act
+        clientRepository.addOrderStats(client.getId(), 2, 30000L, march, may);
+        clientRepository.addOrderStats(client.getId(), 1, 5050L, may.minusDays(10), may.minusDays(10));
+        entityManager.clear();
+
+        // Assert
+        Client updated = clientRepository.findById(client.getId()).orElseThrow();
+        assertEquals(3, updated.getTotalOrders());
+        assertEquals(35050L, updated.getTotalSpentCents());
+        assertEquals(new BigDecimal("350.50"), updated.getTotalSpent());
+        assertEquals(march, updated.getFirstOrderDate());
+        assertEquals(may, updated.getLastOrderDate());
+    }
+
+    @Test
+    void recalculateTiers_ShouldApplyThresholdsToGivenClientsOnly() {
+        // Arrange
+        Client silver = clientRepository.findByEmail("client1@example.com").orElseThrow();
+        Client platinum = clientRepository.findByEmail("client2@example.com").orElseThrow();
+        Client untouched = clientRepository.findByEmail("client4@example.com").orElseThrow();
+        clientRepository.addOrderStats(silver.getId(), 3, 10000L, LocalDateTime.now(), LocalDateTime.now());
+        clientRepository.addOrderStats(platinum.getId(), 1, 1500000L, LocalDateTime.now(), LocalDateTime.now());
+        clientRepository.addOrderStats(untouched.getId(), 3, 10000L, LocalDateTime.now(), LocalDateTime.now());
+
+        // Act
+        clientRepository.recalculateTiers(List.of(silver.getId(), platinum.getId()));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(CustomerTier.SILVER, clientRepository.findById(silver.getId()).orElseThrow().getFidelityLevel());
+        assertEquals(CustomerTier.PLATINUM, clientRepository.findById(platinum.getId()).orElseThrow().getFidelityLevel());
+        assertEquals(CustomerTier.BASIC, clientRepository.findById(untouched.getId()).orElseThrow().getFidelityLevel());
+    }
+}
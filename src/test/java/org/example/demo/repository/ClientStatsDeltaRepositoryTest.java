@@ -0,0 +1,88 @@
+package org.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.event.OrderConfirmedEvent;
+import org.example.demo.model.Client;
+import org.example.demo.model.ClientStatsDelta;
+import org.example.demo.service.ClientStatsAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(ClientStatsAggregator.class)
+class ClientStatsDeltaRepositoryTest {
+
+    @Autowired
+    private ClientStatsDeltaRepository deltaRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientStatsAggregator aggregator;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Client client;
+
+    private final LocalDateTime monday = LocalDateTime.of(2024, 6, 3, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        client = Client.builder()
+                .fullName("Test Client")
+                .email("test@example.com")
+                .phone("0612345678")
+                .address("Test Address")
+                .build();
+        entityManager.persist(client);
+    }
+
+    @Test
+    void flush_ShouldApplyRecordedDeltasToClientAndDeleteThem() {
+        // Arrange
+        aggregator.onOrderConfirmed(new OrderConfirmedEvent(1L, client.getId(), new BigDecimal("600.00"), monday));
+        aggregator.onOrderConfirmed(new OrderConfirmedEvent(2L, client.getId(), new BigDecimal("450.50"), monday.plusDays(2)));
+        entityManager.flush();
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        entityManager.clear();
+        Client updated = clientRepository.findById(client.getId()).orElseThrow();
+        assertEquals(2, updated.getTotalOrders());
+        assertEquals(105050L, updated.getTotalSpentCents());
+        assertEquals(monday, updated.getFirstOrderDate());
+        assertEquals(monday.plusDays(2), updated.getLastOrderDate());
+        assertEquals(CustomerTier.SILVER, updated.getFidelityLevel());
+        assertEquals(0, deltaRepository.count());
+    }
+
+    @Test
+    void deleteByIds_ShouldOnlyCountDeltasStillPending() {
+        // Arrange
+        ClientStatsDelta first = deltaRepository.save(new ClientStatsDelta(null, client.getId(), 100L, monday));
+        ClientStatsDelta second = deltaRepository.save(new ClientStatsDelta(null, client.getId(), 200L, monday));
+        entityManager.flush();
+        deltaRepository.deleteByIds(List.of(first.getId()));
+
+        // Act
+        int claimed = deltaRepository.deleteByIds(List.of(first.getId(), second.getId()));
+
+        // Assert
+        assertEquals(1, claimed);
+        assertEquals(0, deltaRepository.count());
+    }
+}
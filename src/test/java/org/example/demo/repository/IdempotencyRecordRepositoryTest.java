@@ -0,0 +1,61 @@
+package org.example.demo.repository;
+
+import org.example.demo.enums.IdempotencyScope;
+import org.example.demo.model.IdempotencyRecord;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class IdempotencyRecordRepositoryTest {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    void saveAndFlush_WithSameKeyInSameScope_ShouldViolateNamedConstraint() {
+        // Arrange
+        idempotencyRecordRepository.saveAndFlush(record(IdempotencyScope.CREATE_ORDER, "key-1", LocalDateTime.now()));
+        idempotencyRecordRepository.saveAndFlush(record(IdempotencyScope.ADD_PAYMENT, "key-1", LocalDateTime.now()));
+
+        // Act & Assert
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () ->
+                idempotencyRecordRepository.saveAndFlush(record(IdempotencyScope.CREATE_ORDER, "key-1", LocalDateTime.now())));
+        // IdempotencyService recognizes a concurrent duplicate by this constraint name
+        ConstraintViolationException violation = assertInstanceOf(ConstraintViolationException.class, exception.getCause());
+        assertTrue(violation.getConstraintName().toLowerCase().contains("uk_idempotency_keys_scope_key"));
+    }
+
+    @Test
+    void deleteCreatedBefore_ShouldOnlyPurgeExpiredKeys() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.save(record(IdempotencyScope.CREATE_ORDER, "old", now.minusDays(2)));
+        idempotencyRecordRepository.save(record(IdempotencyScope.CREATE_ORDER, "recent", now.minusHours(1)));
+        idempotencyRecordRepository.flush();
+
+        // Act
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(now.minusDays(1));
+
+        // Assert
+        assertEquals(1, purged);
+        assertTrue(idempotencyRecordRepository.findByScopeAndIdempotencyKey(IdempotencyScope.CREATE_ORDER, "recent").isPresent());
+        assertTrue(idempotencyRecordRepository.findByScopeAndIdempotencyKey(IdempotencyScope.CREATE_ORDER, "old").isEmpty());
+    }
+
+    private IdempotencyRecord record(IdempotencyScope scope, String key, LocalDateTime createdAt) {
+        return IdempotencyRecord.builder()
+                .scope(scope)
+                .idempotencyKey(key)
+                .requestHash("0".repeat(64))
+                .response("{\"id\":1}")
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.mappers.OrderMapper;
+import org.example.demo.model.Client;
+import org.example.demo.model.Order;
+import org.example.demo.model.OrderItem;
+import org.example.demo.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Client client;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        client = Client.builder()
+                .fullName("Test Client")
+                .email("test@example.com")
+                .phone("0612345678")
+                .address("Test Address")
+                .build();
+        entityManager.persist(client);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Product product = Product.builder()
+                    .name("Product " + i)
+                    .description("Description " + i)
+                    .unitPrice(new BigDecimal("10.00"))
+                    .stockQuantity(100)
+                    .build();
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void save_OrderWithHundredLines_ShouldBatchItemInserts() {
+        // Arrange
+        Order order = newOrder(entityManager.getReference(Client.class, client.getId()), LocalDateTime.now());
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : products) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .product(entityManager.getReference(Product.class, product.getId()))
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("10.00"))
+                    .totalPrice(new BigDecimal("10.00"))
+                    .build());
+        }
+        order.setOrderItems(items);
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        orderRepository.save(order);
+        entityManager.flush();
+
+        // Assert
+        // 101 inserts go out as batches: 1 order insert + 2 item batches (batch_size=50)
+        // plus a handful of pooled sequence calls, instead of 101 single-row INSERTs
+        assertEquals(101, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+                "Expected batched inserts but got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void findByIdInOrderByOrderDateDescIdDesc_ShouldLoadWholeTreeInOneQuery() {
+        // Arrange
+        List<Long> ids = saveOrdersWithItems(10, 5);
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<OrderResponseDTO> result = orderRepository.findByIdInOrderByOrderDateDescIdDesc(ids).stream()
+                .map(new OrderMapper()::toResponse)
+                .toList();
+
+        // Assert
+        assertEquals(10, result.size());
+        assertEquals(5, result.get(0).getOrderItems().size());
+        assertNotNull(result.get(9).getOrderItems().get(4).getProductName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void keysetQueries_ShouldWalkAllOrdersNewestFirstWithoutGaps() {
+        // Arrange
+        saveOrdersWithItems(7, 1);
+        Order sameDate = orderRepository.findById(orderRepository.findFirstIdsByClient(client.getId(), PageRequest.of(0, 1)).get(0)).orElseThrow();
+        // A second order with the exact same timestamp must not be skipped by the cursor
+        Order twin = newOrder(entityManager.getReference(Client.class, client.getId()), sameDate.getOrderDate());
+        twin.setOrderItems(List.of());
+        orderRepository.save(twin);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Long> seen = new ArrayList<>();
+        List<Long> page = orderRepository.findFirstIdsByClient(client.getId(), PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            seen.addAll(page);
+            Order last = orderRepository.findById(page.get(page.size() - 1)).orElseThrow();
+            page = orderRepository.findIdsByClientBefore(client.getId(), last.getOrderDate(), last.getId(), PageRequest.of(0, 3));
+        }
+
+        // Assert
+        assertEquals(8, seen.size());
+        assertEquals(8, seen.stream().distinct().count());
+        assertEquals(twin.getId(), seen.get(0));
+    }
+
+    private List<Long> saveOrdersWithItems(int orderCount, int itemsPerOrder) {
+        Client managedClient = entityManager.find(Client.class, client.getId());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            Order order = newOrder(managedClient, LocalDateTime.now().minusDays(i));
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(OrderItem.builder()
+                        .order(order)
+                        .product(entityManager.getReference(Product.class, products.get(i * itemsPerOrder + j).getId()))
+                        .quantity(1)
+                        .unitPrice(new BigDecimal("10.00"))
+                        .totalPrice(new BigDecimal("10.00"))
+                        .build());
+            }
+            order.setOrderItems(items);
+            ids.add(orderRepository.save(order).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    @Test
+    void streamConfirmedTotalsByClient_ShouldSumConfirmedOrdersOnly() {
+        // Arrange
+        Client owner = entityManager.getReference(Client.class, client.getId());
+        LocalDateTime first = LocalDateTime.of(2024, 1, 10, 9, 0);
+        LocalDateTime last = LocalDateTime.of(2024, 2, 10, 9, 0);
+        for (LocalDateTime date : List.of(first, last)) {
+            Order order = newOrder(owner, date);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setTotal(new BigDecimal("0.10"));
+            entityManager.persist(order);
+        }
+        entityManager.persist(newOrder(owner, LocalDateTime.of(2024, 3, 1, 9, 0)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<ClientOrderTotals> totals;
+        try (var stream = orderRepository.streamConfirmedTotalsByClient()) {
+            totals = stream.toList();
+        }
+
+        // Assert
+        assertEquals(1, totals.size());
+        assertEquals(client.getId(), totals.get(0).getClientId());
+        assertEquals(2L, totals.get(0).getOrders());
+        assertEquals(0, new BigDecimal("0.20").compareTo(totals.get(0).getTotal()));
+        assertEquals(first, totals.get(0).getFirstOrderDate());
+        assertEquals(last, totals.get(0).getLastOrderDate());
+    }
+
+    private Order newOrder(Client owner, LocalDateTime orderDate) {
+        return Order.builder()
+                .client(owner)
+                .orderDate(orderDate)
+                .subtotal(new BigDecimal("50.00"))
+                .discount(BigDecimal.ZERO)
+                .vat(new BigDecimal("10.00"))
+                .total(new BigDecimal("60.00"))
+                .status(OrderStatus.PENDING)
+                .remainingAmount(new BigDecimal("60.00"))
+                .build();
+    }
+}
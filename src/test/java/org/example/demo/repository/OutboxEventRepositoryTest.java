@@ -0,0 +1,76 @@
+package org.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.enums.OutboxEventType;
+import org.example.demo.model.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void lockPending_ShouldReturnOldestUnpublishedEventsFirst() {
+        // Arrange
+        OutboxEvent first = outboxEventRepository.save(event(null));
+        outboxEventRepository.save(event(LocalDateTime.now()));
+        OutboxEvent second = outboxEventRepository.save(event(null));
+        outboxEventRepository.save(event(null));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<OutboxEvent> pending = outboxEventRepository.lockPending(PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of(first.getId(), second.getId()), pending.stream().map(OutboxEvent::getId).toList());
+    }
+
+    @Test
+    void markPublished_ShouldTakeEventsOutOfThePendingQueue() {
+        // Arrange
+        OutboxEvent delivered = outboxEventRepository.save(event(null));
+        OutboxEvent failed = outboxEventRepository.save(event(null));
+        outboxEventRepository.save(event(LocalDateTime.now().minusDays(30)));
+        entityManager.flush();
+
+        // Act
+        outboxEventRepository.markPublished(List.of(delivered.getId()), LocalDateTime.now());
+        outboxEventRepository.recordFailure(failed.getId(), "timeout");
+        int purged = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(7));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, purged);
+        assertEquals(1, outboxEventRepository.countByPublishedAtIsNull());
+        OutboxEvent retried = outboxEventRepository.findById(failed.getId()).orElseThrow();
+        assertEquals(1, retried.getAttempts());
+        assertEquals("timeout", retried.getLastError());
+        assertNotNull(outboxEventRepository.findById(delivered.getId()).orElseThrow().getPublishedAt());
+    }
+
+    private static OutboxEvent event(LocalDateTime publishedAt) {
+        return OutboxEvent.builder()
+                .aggregateType(OutboxAggregateType.ORDER)
+                .aggregateId(1L)
+                .eventType(OutboxEventType.ORDER_CONFIRMED)
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .publishedAt(publishedAt)
+                .build();
+    }
+}
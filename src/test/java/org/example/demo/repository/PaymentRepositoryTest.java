@@ -0,0 +1,185 @@
+package org.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.PaymentStatus;
+import org.example.demo.enums.PaymentType;
+import org.example.demo.model.Client;
+import org.example.demo.model.Order;
+import org.example.demo.model.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class PaymentRepositoryTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        Client client = Client.builder()
+                .fullName("Test Client")
+                .email("test@example.com")
+                .phone("0612345678")
+                .address("Test Address")
+                .build();
+        entityManager.persist(client);
+
+        order = Order.builder()
+                .client(client)
+                .orderDate(LocalDateTime.now())
+                .subtotal(new BigDecimal("1000.00"))
+                .discount(BigDecimal.ZERO)
+                .vat(new BigDecimal("200.00"))
+                .total(new BigDecimal("1200.00"))
+                .status(OrderStatus.PENDING)
+                .remainingAmount(new BigDecimal("1200.00"))
+                .build();
+        entityManager.persist(order);
+        entityManager.flush();
+    }
+
+    private void addPayment(int number, String amount, PaymentStatus status) {
+        entityManager.persist(Payment.builder()
+                .order(order)
+                .paymentNumber(number)
+                .amount(new BigDecimal(amount))
+                .paymentType(status == PaymentStatus.CASHED ? PaymentType.CASH : PaymentType.CHECK)
+                .paymentDate(LocalDateTime.now())
+                .status(status)
+                .build());
+    }
+
+    @Test
+    void findSummaryByOrderId_WithoutPayments_ShouldStartNumberingAtOne() {
+        // Act
+        OrderPaymentSummary summary = paymentRepository.findSummaryByOrderId(order.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(OrderStatus.PENDING, summary.orderStatus());
+        assertEquals(1, summary.nextPaymentNumber());
+        assertEquals(0, BigDecimal.ZERO.compareTo(summary.cashedTotal()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(summary.pendingTotal()));
+        assertEquals(0, new BigDecimal("1200.00").compareTo(summary.remainingAmount()));
+    }
+
+    @Test
+    void findSummaryByOrderId_ShouldTotalPaymentsByStatus() {
+        // Arrange
+        addPayment(1, "100.00", PaymentStatus.CASHED);
+        addPayment(2, "250.50", PaymentStatus.PENDING);
+        addPayment(3, "300.00", PaymentStatus.REJECTED);
+        addPayment(4, "49.50", PaymentStatus.CASHED);
+        entityManager.flush();
+
+        // Act
+        OrderPaymentSummary summary = paymentRepository.findSummaryByOrderId(order.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(5, summary.nextPaymentNumber());
+        assertEquals(0, new BigDecimal("149.50").compareTo(summary.cashedTotal()));
+        assertEquals(0, new BigDecimal("250.50").compareTo(summary.pendingTotal()));
+    }
+
+    @Test
+    void findSummaryByOrderId_UnknownOrder_ShouldBeEmpty() {
+        // Act & Assert
+        assertTrue(paymentRepository.findSummaryByOrderId(-1L).isEmpty());
+    }
+
+    @Test
+    void deductRemainingAmount_ShouldRefuseToGoBelowZero() {
+        // Act
+        int first = orderRepository.deductRemainingAmount(order.getId(), new BigDecimal("1000.00"));
+        int second = orderRepository.deductRemainingAmount(order.getId(), new BigDecimal("200.01"));
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(0, new BigDecimal("200.00").compareTo(orderRepository.findRemainingAmountById(order.getId())));
+    }
+
+    @Test
+    void deductRemainingAmount_WhenOrderLeftPendingAfterSummaryRead_ShouldRefuse() {
+        // Arrange
+        OrderPaymentSummary summary = paymentRepository.findSummaryByOrderId(order.getId()).orElseThrow();
+        entityManager.createQuery("UPDATE Order o SET o.status = :status WHERE o.id = :id")
+                .setParameter("status", OrderStatus.CANCELED)
+                .setParameter("id", order.getId())
+                .executeUpdate();
+
+        // Act
+        int updated = orderRepository.deductRemainingAmount(order.getId(), new BigDecimal("100.00"));
+
+        // Assert
+        assertEquals(OrderStatus.PENDING, summary.orderStatus());
+        assertEquals(0, updated);
+        assertEquals(0, new BigDecimal("1200.00").compareTo(orderRepository.findRemainingAmountById(order.getId())));
+    }
+
+    @Test
+    void save_DuplicatePaymentNumber_ShouldViolateUniqueConstraint() {
+        // Arrange
+        addPayment(1, "100.00", PaymentStatus.CASHED);
+        entityManager.flush();
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> paymentRepository.saveAndFlush(Payment.builder()
+                .order(order)
+                .paymentNumber(1)
+                .amount(new BigDecimal("50.00"))
+                .paymentType(PaymentType.CASH)
+                .paymentDate(LocalDateTime.now())
+                .status(PaymentStatus.CASHED)
+                .build()));
+    }
+
+    @Test
+    void deductRemainingAmount_ShouldBumpOrderVersion() {
+        // Arrange
+        long version = order.getVersion();
+        entityManager.clear();
+
+        // Act
+        orderRepository.deductRemainingAmount(order.getId(), new BigDecimal("100.00"));
+
+        // Assert
+        assertEquals(version + 1, orderRepository.findById(order.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void findPendingBankPayments_ShouldOnlyReturnPendingChequesAndTransfers() {
+        // Arrange
+        addPayment(1, "100.00", PaymentStatus.CASHED);
+        addPayment(2, "250.50", PaymentStatus.PENDING);
+        entityManager.flush();
+        entityManager.createQuery("UPDATE Payment p SET p.reference = 'CHQ-' || p.paymentNumber, p.bankName = 'BMCE'")
+                .executeUpdate();
+
+        // Act
+        List<PendingPaymentRef> pending = paymentRepository.findPendingBankPayments();
+
+        // Assert
+        assertEquals(1, pending.size());
+        assertEquals("CHQ-2", pending.get(0).reference());
+        assertEquals(0, new BigDecimal("250.50").compareTo(pending.get(0).amount()));
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.event.OrderStatusChangedEvent;
+import org.example.demo.model.Client;
+import org.example.demo.model.Order;
+import org.example.demo.model.OrderItem;
+import org.example.demo.model.Product;
+import org.example.demo.model.ProductSalesDailyRollup;
+import org.example.demo.model.SalesDailyRollup;
+import org.example.demo.service.SalesRollupAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(SalesRollupAggregator.class)
+class SalesRollupRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository salesRepository;
+
+    @Autowired
+    private ProductSalesDailyRollupRepository productSalesRepository;
+
+    @Autowired
+    private SalesDailyDeltaRepository salesDeltaRepository;
+
+    @Autowired
+    private ProductSalesDailyDeltaRepository productSalesDeltaRepository;
+
+    @Autowired
+    private SalesRollupAggregator aggregator;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LocalDate june3 = LocalDate.of(2024, 6, 3);
+
+    private Client client;
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        client = Client.builder()
+                .fullName("Test Client")
+                .email("sales@example.com")
+                .phone("0612345678")
+                .address("Test Address")
+                .fidelityLevel(CustomerTier.SILVER)
+                .build();
+        entityManager.persist(client);
+        keyboard = product("Keyboard");
+        mouse = product("Mouse");
+        entityManager.flush();
+    }
+
+    @Test
+    void aggregateDailySales_ShouldGroupByDayTierAndStatus() {
+        // Arrange
+        persistOrder(june3.atTime(9, 0), CustomerTier.GOLD, OrderStatus.CONFIRMED, keyboard, 2);
+        persistOrder(june3.atTime(18, 30), CustomerTier.GOLD, OrderStatus.CONFIRMED, mouse, 1);
+        // Placed before orders recorded their tier: falls back to the client's tier
+        persistOrder(june3.atTime(12, 0), null, OrderStatus.PENDING, keyboard, 1);
+        persistOrder(june3.plusDays(1).atTime(0, 0), CustomerTier.GOLD, OrderStatus.CONFIRMED, keyboard, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<DailySalesTotals> totals = orderRepository.aggregateDailySales(june3.atStartOfDay(),
+                june3.plusDays(1).atStartOfDay());
+
+        // Assert
+        assertEquals(2, totals.size());
+        DailySalesTotals confirmed = totals.stream().filter(t -> t.status() == OrderStatus.CONFIRMED).findFirst().orElseThrow();
+        assertEquals(june3, confirmed.salesDate());
+        assertEquals(CustomerTier.GOLD, confirmed.tier());
+        assertEquals(2L, confirmed.orders());
+        assertEquals(0, new BigDecimal("180.00").compareTo(confirmed.total()));
+        DailySalesTotals pending = totals.stream().filter(t -> t.status() == OrderStatus.PENDING).findFirst().orElseThrow();
+        assertEquals(CustomerTier.SILVER, pending.tier());
+    }
+
+    @Test
+    void aggregateDailyProductSales_ShouldSumLinesPerProduct() {
+        // Arrange
+        persistOrder(june3.atTime(9, 0), CustomerTier.GOLD, OrderStatus.CONFIRMED, keyboard, 2);
+        persistOrder(june3.atTime(10, 0), CustomerTier.GOLD, OrderStatus.CONFIRMED, keyboard, 3);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<DailyProductSalesTotals> totals = orderItemRepository.aggregateDailyProductSales(june3.atStartOfDay(),
+                june3.plusDays(1).atStartOfDay());
+
+        // Assert
+        assertEquals(1, totals.size());
+        assertEquals(keyboard.getId(), totals.get(0).productId());
+        assertEquals(2L, totals.get(0).lines());
+        assertEquals(5L, totals.get(0).quantity());
+        assertEquals(0, new BigDecimal("250.00").compareTo(totals.get(0).revenue()));
+    }
+
+    @Test
+    void addTotals_ShouldUpdateExistingBucketOnly() {
+        // Arrange
+        salesRepository.save(rollup(june3, OrderStatus.CONFIRMED, 2L, "200.00"));
+        entityManager.flush();
+
+        // Act
+        int updated = salesRepository.addTotals(june3, CustomerTier.GOLD, OrderStatus.CONFIRMED, -1L,
+                new BigDecimal("-100.00"), BigDecimal.ZERO, new BigDecimal("-100.00"));
+        int missing = salesRepository.addTotals(june3, CustomerTier.GOLD, OrderStatus.CANCELED, 1L,
+                new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("100.00"));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        SalesDailyRollup row = salesRepository.findAll().get(0);
+        assertEquals(1L, row.getOrders());
+        assertEquals(0, new BigDecimal("100.00").compareTo(row.getTotal()));
+    }
+
+    @Test
+    void reportQueries_ShouldFilterByStatusAndRange() {
+        // Arrange
+        salesRepository.save(rollup(june3, OrderStatus.CONFIRMED, 2L, "200.00"));
+        salesRepository.save(rollup(june3, OrderStatus.CANCELED, 1L, "50.00"));
+        salesRepository.save(rollup(june3.plusDays(1), OrderStatus.CONFIRMED, 3L, "300.00"));
+        salesRepository.save(rollup(june3.plusDays(10), OrderStatus.CONFIRMED, 9L, "900.00"));
+        entityManager.flush();
+
+        // Act
+        List<SalesTotals> byDay = salesRepository.totalsByDay(june3, june3.plusDays(1), OrderStatus.CONFIRMED, null);
+        List<SalesTotals> byStatus = salesRepository.totalsByStatus(june3, june3, null, CustomerTier.GOLD);
+
+        // Assert
+        assertEquals(List.of(june3, june3.plusDays(1)), byDay.stream().map(SalesTotals::key).toList());
+        assertEquals(2L, byDay.get(0).orders());
+        assertEquals(2, byStatus.size());
+        assertNull(byStatus.get(0).quantity());
+    }
+
+    @Test
+    void totalsByProduct_ShouldReturnBestSellersFirst() {
+        // Arrange
+        productSalesRepository.save(productRollup(keyboard, "100.00"));
+        productSalesRepository.save(productRollup(mouse, "300.00"));
+        entityManager.flush();
+
+        // Act
+        List<SalesTotals> top = productSalesRepository.totalsByProduct(june3, june3, OrderStatus.CONFIRMED, null,
+                PageRequest.of(0, 1));
+
+        // Assert
+        assertEquals(1, top.size());
+        assertEquals(mouse.getId(), top.get(0).key());
+        assertEquals(3L, top.get(0).quantity());
+    }
+
+    private Product product(String name) {
+        Product product = Product.builder()
+                .name(name)
+                .description(name)
+                .unitPrice(new BigDecimal("50.00"))
+                .stockQuantity(100)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void persistOrder(LocalDateTime orderDate, CustomerTier tier, OrderStatus status, Product product, int quantity) {
+        BigDecimal subtotal = product.getUnitPrice().multiply(BigDecimal.valueOf(quantity));
+        Order order = Order.builder()
+                .client(client)
+                .orderDate(orderDate)
+                .customerTier(tier)
+                .subtotal(subtotal)
+                .discount(BigDecimal.ZERO)
+                .vat(subtotal.multiply(new BigDecimal("0.20")))
+                .total(subtotal.multiply(new BigDecimal("1.20")))
+                .status(status)
+                .remainingAmount(BigDecimal.ZERO)
+                .build();
+        order.setOrderItems(List.of(OrderItem.builder()
+                .order(order)
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(product.getUnitPrice())
+                .totalPrice(subtotal)
+                .build()));
+        entityManager.persist(order);
+    }
+
+    private SalesDailyRollup rollup(LocalDate day, OrderStatus status, long orders, String total) {
+        return SalesDailyRollup.builder()
+                .salesDate(day)
+                .tier(CustomerTier.GOLD)
+                .status(status)
+                .orders(orders)
+                .subtotal(new BigDecimal(total))
+                .discount(BigDecimal.ZERO)
+                .total(new BigDecimal(total))
+                .build();
+    }
+
+    private ProductSalesDailyRollup productRollup(Product product, String revenue) {
+        return ProductSalesDailyRollup.builder()
+                .salesDate(june3)
+                .productId(product.getId())
+                .tier(CustomerTier.GOLD)
+                .status(OrderStatus.CONFIRMED)
+                .lines(1L)
+                .quantity(3L)
+                .revenue(new BigDecimal(revenue))
+                .build();
+    }
+
+    @Test
+    void flush_ShouldApplyRecordedDeltasAndDeleteThem() {
+        // Arrange
+        aggregator.onOrderStatusChanged(new OrderStatusChangedEvent(1L, june3.atTime(9, 0), CustomerTier.SILVER,
+                null, OrderStatus.PENDING, new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("120.00"),
+                List.of(new OrderStatusChangedEvent.Line(keyboard.getId(), 2, new BigDecimal("100.00")))));
+        aggregator.onOrderStatusChanged(new OrderStatusChangedEvent(1L, june3.atTime(9, 0), CustomerTier.SILVER,
+                OrderStatus.PENDING, OrderStatus.CONFIRMED, new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("120.00"),
+                List.of(new OrderStatusChangedEvent.Line(keyboard.getId(), 2, new BigDecimal("100.00")))));
+        entityManager.flush();
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        entityManager.flush();
+        entityManager.clear();
+        List<SalesDailyRollup> rows = salesRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(OrderStatus.CONFIRMED, rows.get(0).getStatus());
+        assertEquals(0, new BigDecimal("120.00").compareTo(rows.get(0).getTotal()));
+        assertEquals(0, salesDeltaRepository.count());
+        assertEquals(0, productSalesDeltaRepository.count());
+    }
+
+    @Test
+    void deleteBetween_ShouldOnlyDropDeltasOfTheRange() {
+        // Arrange
+        aggregator.onOrderStatusChanged(new OrderStatusChangedEvent(1L, june3.atTime(9, 0), CustomerTier.SILVER,
+                null, OrderStatus.PENDING, new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("120.00"), List.of()));
+        aggregator.onOrderStatusChanged(new OrderStatusChangedEvent(2L, june3.plusMonths(1).atTime(9, 0), CustomerTier.SILVER,
+                null, OrderStatus.PENDING, new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("120.00"), List.of()));
+        entityManager.flush();
+
+        // Act
+        int deleted = salesDeltaRepository.deleteBetween(june3.withDayOfMonth(1), june3.withDayOfMonth(1).plusMonths(1));
+
+        // Assert
+        assertEquals(1, deleted);
+        assertEquals(june3.plusMonths(1), salesDeltaRepository.findAll().get(0).getSalesDate());
+    }
+}
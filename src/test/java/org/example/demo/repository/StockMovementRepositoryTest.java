@@ -0,0 +1,153 @@
+package org.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.enums.StockMovementType;
+import org.example.demo.model.Product;
+import org.example.demo.model.StockMovement;
+import org.example.demo.service.StockSnapshotJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.stock.snapshot-batch-size=2"
+})
+@Import(StockSnapshotJob.class)
+class StockMovementRepositoryTest {
+
+    @SpyBean
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockSnapshotJob stockSnapshotJob;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product first;
+    private Product second;
+
+    @BeforeEach
+    void setUp() {
+        first = product("First", 100);
+        second = product("Second", 10);
+    }
+
+    private Product product(String name, int stock) {
+        Product product = Product.builder()
+                .name(name)
+                .description(name)
+                .unitPrice(new BigDecimal("10.00"))
+                .stockQuantity(stock)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void move(Product product, int quantity, StockMovementType type) {
+        entityManager.persist(StockMovement.builder()
+                .productId(product.getId())
+                .quantity(quantity)
+                .type(type)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Map<Long, Long> available() {
+        entityManager.flush();
+        entityManager.clear();
+        return stockMovementRepository.findAvailableStock(List.of(first.getId(), second.getId())).stream()
+                .collect(Collectors.toMap(ProductStock::productId, ProductStock::quantity));
+    }
+
+    @Test
+    void findAvailableStock_ShouldAddUnfoldedMovementsToSnapshot() {
+        // Arrange
+        move(first, -30, StockMovementType.ORDER_RESERVE);
+        move(first, 5, StockMovementType.CANCEL_RELEASE);
+
+        // Act
+        Map<Long, Long> available = available();
+
+        // Assert
+        assertEquals(75L, available.get(first.getId()));
+        assertEquals(10L, available.get(second.getId()));
+    }
+
+    @Test
+    void snapshot_ShouldFoldMovementsWithoutChangingAvailability() {
+        // Arrange
+        move(first, -30, StockMovementType.ORDER_RESERVE);
+        move(first, 5, StockMovementType.REJECT_RELEASE);
+        move(second, 7, StockMovementType.ADJUSTMENT);
+        entityManager.flush();
+
+        // Act
+        int folded = stockSnapshotJob.snapshot();
+
+        // Assert
+        assertEquals(3, folded);
+        assertEquals(Map.of(first.getId(), 75L, second.getId(), 17L), available());
+        assertEquals(75, productRepository.findById(first.getId()).orElseThrow().getStockQuantity());
+        assertEquals(17, productRepository.findById(second.getId()).orElseThrow().getStockQuantity());
+        assertTrue(stockMovementRepository.findByFoldedFalseOrderByIdAsc(PageRequest.of(0, 10)).isEmpty());
+        assertEquals(3, stockMovementRepository.count());
+    }
+
+    @Test
+    void snapshot_WhenAnotherNodeFoldsTheSameBatch_ShouldNotAddItTwice() {
+        // Arrange
+        move(first, -30, StockMovementType.ORDER_RESERVE);
+        move(second, 7, StockMovementType.ADJUSTMENT);
+        entityManager.flush();
+        List<StockMovement> read = stockMovementRepository.findByFoldedFalseOrderByIdAsc(PageRequest.of(0, 2));
+        // Another node folds the batch between this node's read and its claim
+        doAnswer(invocation -> {
+            stockMovementRepository.markFolded(read.stream().map(StockMovement::getId).toList());
+            productRepository.addToStockSnapshot(first.getId(), -30);
+            productRepository.addToStockSnapshot(second.getId(), 7);
+            return read;
+        }).doReturn(List.of()).when(stockMovementRepository).findByFoldedFalseOrderByIdAsc(any());
+
+        // Act
+        int folded = stockSnapshotJob.snapshot();
+
+        // Assert
+        assertEquals(0, folded);
+        assertEquals(Map.of(first.getId(), 70L, second.getId(), 17L), available());
+    }
+
+    @Test
+    void save_ShouldNeverOverwriteTheSnapshot() {
+        // Arrange
+        move(first, -30, StockMovementType.ORDER_RESERVE);
+        entityManager.flush();
+        Product loaded = productRepository.findById(first.getId()).orElseThrow();
+        stockSnapshotJob.snapshot();
+
+        // Act
+        loaded.setName("Renamed");
+        productRepository.saveAndFlush(loaded);
+
+        // Assert
+        assertEquals(70L, available().get(first.getId()));
+    }
+}
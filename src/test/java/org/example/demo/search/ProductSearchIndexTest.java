@@ -0,0 +1,146 @@
+package org.example.demo.search;
+
+import org.example.demo.exception.ServiceBusyException;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductSearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, transactionManager);
+        when(productRepository.streamSearchDocuments()).thenReturn(Stream.of(
+                new ProductSearchDocument(1L, "Clavier mécanique", "Clavier USB rétroéclairé pour bureau"),
+                new ProductSearchDocument(2L, "Souris sans fil", "Souris optique, récepteur USB"),
+                new ProductSearchDocument(3L, "Câble USB-C", "Câble de charge pour clavier et souris"),
+                new ProductSearchDocument(4L, "Écran 27 pouces", "Moniteur IPS")));
+        index.rebuild();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        List<ProductSearchIndex.Hit> hits = index.search("clavier", 10);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), hits.stream().map(ProductSearchIndex.Hit::productId).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndIgnoreAccents() {
+        // Act
+        List<ProductSearchIndex.Hit> hits = index.search("ecr", 10);
+
+        // Assert
+        assertEquals(List.of(4L), hits.stream().map(ProductSearchIndex.Hit::productId).toList());
+    }
+
+    @Test
+    void search_ShouldTolerateOneTypo() {
+        // Act
+        List<ProductSearchIndex.Hit> swapped = index.search("suoris", 10);
+        List<ProductSearchIndex.Hit> missing = index.search("moniter", 10);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), swapped.stream().map(ProductSearchIndex.Hit::productId).toList());
+        assertEquals(List.of(4L), missing.stream().map(ProductSearchIndex.Hit::productId).toList());
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        // Act
+        List<ProductSearchIndex.Hit> hits = index.search("souris usb-c", 10);
+
+        // Assert
+        assertEquals(List.of(3L), hits.stream().map(ProductSearchIndex.Hit::productId).toList());
+    }
+
+    @Test
+    void index_ShouldReplaceAndRemoveProducts() {
+        // Arrange
+        index.index(product(2L, "Trackpad sans fil", false));
+        index.index(product(5L, "Souris verticale", false));
+
+        // Act
+        List<ProductSearchIndex.Hit> afterUpdate = index.search("souris", 10);
+        index.remove(5L);
+        List<ProductSearchIndex.Hit> afterRemove = index.search("souris", 10);
+
+        // Assert
+        assertEquals(List.of(5L, 3L), afterUpdate.stream().map(ProductSearchIndex.Hit::productId).toList());
+        assertEquals(List.of(3L), afterRemove.stream().map(ProductSearchIndex.Hit::productId).toList());
+        assertEquals(1, index.search("trackpad", 10).size());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void search_WhenSeveralExpansionsMatchOneProduct_ShouldCountTheBestOnce() {
+        // Arrange
+        index.index(product(5L, "Chargeur charge rapide", false));
+        index.index(product(6L, "Chargeur lent", false));
+
+        // Act
+        List<ProductSearchIndex.Hit> prefix = index.search("charg", 10);
+        List<ProductSearchIndex.Hit> narrowed = index.search("charg rapide", 10);
+
+        // Assert
+        assertEquals(List.of(5L, 6L, 3L), prefix.stream().map(ProductSearchIndex.Hit::productId).toList());
+        assertEquals(prefix.get(0).score(), prefix.get(1).score());
+        assertEquals(List.of(5L), narrowed.stream().map(ProductSearchIndex.Hit::productId).toList());
+    }
+
+    @Test
+    void search_BeforeFirstRebuild_ShouldAskToRetry() {
+        // Arrange
+        ProductSearchIndex loading = new ProductSearchIndex(productRepository, transactionManager);
+
+        // Act & Assert
+        assertThrows(ServiceBusyException.class, () -> loading.search("souris", 10));
+    }
+
+    @Test
+    void withinOneEdit_ShouldAcceptOneInsertionDeletionSubstitutionOrTransposition() {
+        assertTrue(ProductSearchIndex.withinOneEdit("souris", "souris"));
+        assertTrue(ProductSearchIndex.withinOneEdit("souris", "sourris"));
+        assertTrue(ProductSearchIndex.withinOneEdit("souris", "souri"));
+        assertTrue(ProductSearchIndex.withinOneEdit("souris", "sourys"));
+        assertTrue(ProductSearchIndex.withinOneEdit("souris", "soruis"));
+        assertFalse(ProductSearchIndex.withinOneEdit("souris", "sorius"));
+        assertFalse(ProductSearchIndex.withinOneEdit("souris", "sou"));
+    }
+
+    private Product product(Long id, String name, boolean deleted) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .description(name)
+                .unitPrice(BigDecimal.TEN)
+                .stockQuantity(1)
+                .isDeleted(deleted)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.demo.service;
+
+import org.example.demo.event.OrderConfirmedEvent;
+import org.example.demo.model.ClientStatsDelta;
+import org.example.demo.repository.ClientOrderTotals;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.ClientStatsDeltaRepository;
+import org.example.demo.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientStatsAggregatorTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ClientStatsDeltaRepository deltaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ClientStatsAggregator aggregator;
+
+    private final LocalDateTime monday = LocalDateTime.of(2024, 6, 3, 9, 0);
+    private final LocalDateTime friday = LocalDateTime.of(2024, 6, 7, 17, 0);
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new ClientStatsAggregator(clientRepository, orderRepository, deltaRepository, transactionManager);
+    }
+
+    private static ClientStatsDelta delta(long id, long clientId, long spentCents, LocalDateTime orderDate) {
+        return new ClientStatsDelta(id, clientId, spentCents, orderDate);
+    }
+
+    @Test
+    void onOrderConfirmed_ShouldRecordDeltaInsteadOfTouchingClient() {
+        // Act
+        aggregator.onOrderConfirmed(new OrderConfirmedEvent(1L, 7L, new BigDecimal("100.10"), friday));
+
+        // Assert
+        verify(deltaRepository).save(argThat(d -> d.getClientId() == 7L && d.getSpentCents() == 10010L
+                && d.getOrderDate().equals(friday)));
+        verifyNoInteractions(clientRepository, transactionManager);
+    }
+
+    @Test
+    void flush_ShouldApplyOneUpdatePerClientAndDeleteAppliedDeltas() {
+        // Arrange
+        when(deltaRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(
+                delta(1L, 7L, 10010L, friday), delta(2L, 7L, 20020L, monday), delta(3L, 8L, 5000L, monday)));
+        when(deltaRepository.deleteByIds(List.of(1L, 2L, 3L))).thenReturn(3);
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        verify(clientRepository, times(1)).addOrderStats(7L, 2, 30030L, monday, friday);
+        verify(clientRepository, times(1)).addOrderStats(8L, 1, 5000L, monday, monday);
+        verify(clientRepository, times(1)).recalculateTiers(argThat(ids -> ids.containsAll(List.of(7L, 8L)) && ids.size() == 2));
+    }
+
+    @Test
+    void flush_WithNothingPending_ShouldNotTouchClients() {
+        // Arrange
+        when(deltaRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of());
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    void flush_WhenAnotherNodeClaimedSomeDeltas_ShouldRollBackWithoutApplying() {
+        // Arrange
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(deltaRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(
+                delta(1L, 7L, 10010L, friday), delta(2L, 8L, 5000L, monday)));
+        when(deltaRepository.deleteByIds(List.of(1L, 2L))).thenReturn(1);
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        assertTrue(status.isRollbackOnly());
+        verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    void flush_WhenUpdateFails_ShouldRollBackSoDeltasStayForNextFlush() {
+        // Arrange
+        when(deltaRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(delta(1L, 7L, 10000L, monday)));
+        when(deltaRepository.deleteByIds(List.of(1L))).thenReturn(1);
+        when(clientRepository.addOrderStats(anyLong(), anyInt(), anyLong(), any(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void rebuild_ShouldSetTotalsFromOrdersAndDropPendingDeltasInOneSnapshot() {
+        // Arrange
+        ClientOrderTotals totals = mock(ClientOrderTotals.class);
+        when(totals.getClientId()).thenReturn(7L);
+        when(totals.getOrders()).thenReturn(3L);
+        when(totals.getTotal()).thenReturn(new BigDecimal("1234.565"));
+        when(totals.getFirstOrderDate()).thenReturn(monday);
+        when(totals.getLastOrderDate()).thenReturn(friday);
+        when(orderRepository.streamConfirmedTotalsByClient()).thenReturn(Stream.of(totals));
+
+        // Act
+        int clients = aggregator.rebuild();
+
+        // Assert
+        assertEquals(1, clients);
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        verify(clientRepository).resetOrderStats();
+        verify(deltaRepository).deleteAllPending();
+        verify(clientRepository).setOrderStats(7L, 3, 123457L, monday, friday);
+        verify(clientRepository).recalculateAllTiers();
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.demo.cache.CacheConfig;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.enums.IdempotencyScope;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.exception.IdempotencyKeyMismatchException;
+import org.example.demo.model.IdempotencyRecord;
+import org.example.demo.repository.IdempotencyRecordRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+    private OrderRequestDTO request;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = newService();
+        request = new OrderRequestDTO();
+        request.setClientId(1L);
+        request.setPromoCode("PROMO-AB12");
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldJustRunAction() {
+        // Act
+        IdempotencyService.Outcome<OrderResponseDTO> outcome = idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, null, request, OrderResponseDTO.class, createOrder());
+
+        // Assert
+        assertFalse(outcome.replayed());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void execute_Retry_ShouldReplayFromMemoryWithoutRunningAgain() {
+        // Act
+        IdempotencyService.Outcome<OrderResponseDTO> first = idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, "key-1", request, OrderResponseDTO.class, createOrder());
+        IdempotencyService.Outcome<OrderResponseDTO> retry = idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, "key-1", request, OrderResponseDTO.class, createOrder());
+
+        // Assert
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(argThat(record ->
+                record.getScope() == IdempotencyScope.CREATE_ORDER && record.getIdempotencyKey().equals("key-1")));
+        verify(idempotencyRecordRepository, times(1)).findByScopeAndIdempotencyKey(any(), any());
+    }
+
+    @Test
+    void execute_WhenResponseStoredByAnotherNode_ShouldReplayFromDatabase() {
+        // Arrange
+        IdempotencyRecord stored = storedElsewhere("key-1");
+        when(idempotencyRecordRepository.findByScopeAndIdempotencyKey(IdempotencyScope.CREATE_ORDER, "key-1"))
+                .thenReturn(Optional.of(stored));
+
+        // Act
+        IdempotencyService.Outcome<OrderResponseDTO> retry = idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, "key-1", request, OrderResponseDTO.class, createOrder());
+
+        // Assert
+        assertTrue(retry.replayed());
+        assertEquals(42L, retry.response().getId());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_WithKeyReusedForAnotherRequest_ShouldRefuse() {
+        // Arrange
+        idempotencyService.execute(IdempotencyScope.CREATE_ORDER, "key-1", request, OrderResponseDTO.class, createOrder());
+        OrderRequestDTO other = new OrderRequestDTO();
+        other.setClientId(2L);
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, "key-1", other, OrderResponseDTO.class, createOrder()));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_WhenConcurrentRequestCommittedFirst_ShouldReturnItsResponse() {
+        // Arrange
+        IdempotencyRecord winner = storedElsewhere("key-1");
+        winner.setResponse(winner.getResponse().replace("42", "43"));
+        when(idempotencyRecordRepository.findByScopeAndIdempotencyKey(IdempotencyScope.CREATE_ORDER, "key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate", new ConstraintViolationException(
+                        "duplicate", new SQLException(), "PUBLIC.UK_IDEMPOTENCY_KEYS_SCOPE_KEY_INDEX_1")));
+
+        // Act
+        IdempotencyService.Outcome<OrderResponseDTO> outcome = idempotencyService.execute(
+                IdempotencyScope.CREATE_ORDER, "key-1", request, OrderResponseDTO.class, createOrder());
+
+        // Assert
+        assertTrue(outcome.replayed());
+        assertEquals(43L, outcome.response().getId());
+        verify(transactionManager).rollback(any());
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(idempotencyRecordRepository,
+                new CacheConfig().cacheManager("maximumSize=10", "maximumSize=10", "maximumSize=100"),
+                new ObjectMapper().findAndRegisterModules(), transactionManager, Duration.ofHours(24));
+    }
+
+    // Runs the request once through another node and returns the record it stored
+    private IdempotencyRecord storedElsewhere(String key) {
+        newService().execute(IdempotencyScope.CREATE_ORDER, key, request, OrderResponseDTO.class, createOrder());
+        ArgumentCaptor<IdempotencyRecord> record = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).saveAndFlush(record.capture());
+        clearInvocations(idempotencyRecordRepository);
+        executions.set(0);
+        return record.getValue();
+    }
+
+    private Supplier<OrderResponseDTO> createOrder() {
+        return () -> {
+            executions.incrementAndGet();
+            OrderResponseDTO response = new OrderResponseDTO();
+            response.setId(42L);
+            response.setClientId(1L);
+            response.setOrderDate(LocalDateTime.of(2024, 6, 3, 9, 0));
+            response.setTotal(new BigDecimal("120.00"));
+            response.setStatus(OrderStatus.PENDING);
+            return response;
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.demo.service;
+
+import org.example.demo.dto.request.OrderItemRequestDTO;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderImportResultDTO;
+import org.example.demo.enums.OrderImportStatus;
+import org.example.demo.importer.ImportedOrder;
+import org.example.demo.importer.OrderImportReader;
+import org.example.demo.model.Client;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the in-memory database: the point is what the chunk transaction leaves behind
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderImportServiceIntegrationTest {
+
+    @Autowired
+    private OrderImportService orderImportService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void importOrders_WhenStockIsShort_ShouldLeaveNoOrderBehind() throws Exception {
+        // Arrange
+        Client client = clientRepository.save(Client.builder()
+                .fullName("Import Client")
+                .email("import-shortage@example.com")
+                .phone("0612345678")
+                .address("Test Address")
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .name("Import Keyboard")
+                .description("Keyboard")
+                .unitPrice(new BigDecimal("50.00"))
+                .stockQuantity(3)
+                .build());
+        long ordersBefore = orderRepository.count();
+        List<OrderImportResultDTO> results = new ArrayList<>();
+
+        // Act
+        orderImportService.importOrders(reader(
+                order(1, client, product, 5),
+                order(2, client, product, 2)), 10, results::add);
+
+        // Assert
+        assertEquals(OrderImportStatus.REJECTED, results.get(0).getStatus());
+        assertNull(results.get(0).getOrderId());
+        assertEquals(OrderImportStatus.CREATED, results.get(1).getStatus());
+        // Only the order that got its stock was committed with the chunk
+        assertEquals(ordersBefore + 1, orderRepository.count());
+        assertTrue(orderRepository.existsById(results.get(1).getOrderId()));
+    }
+
+    private static ImportedOrder order(int index, Client client, Product product, int quantity) {
+        return new ImportedOrder(index, "R-" + index, new OrderRequestDTO(client.getId(),
+                List.of(new OrderItemRequestDTO(product.getId(), quantity)), null), null);
+    }
+
+    private static OrderImportReader reader(ImportedOrder... orders) {
+        Iterator<ImportedOrder> iterator = List.of(orders).iterator();
+        return new OrderImportReader() {
+            @Override
+            public ImportedOrder next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.example.demo.dto.request.OrderItemRequestDTO;
+import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderImportResultDTO;
+import org.example.demo.dto.response.OrderResponseDTO;
+import org.example.demo.enums.OrderImportStatus;
+import org.example.demo.exception.InsufficientStockException;
+import org.example.demo.exception.ResourceNotFoundException;
+import org.example.demo.importer.ImportedOrder;
+import org.example.demo.importer.OrderImportReader;
+import org.example.demo.model.Client;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ClientRepository;
+import org.example.demo.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderImportServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private OrderImportService orderImportService;
+
+    private final List<OrderImportResultDTO> results = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderImportService = new OrderImportService(orderService, clientRepository, productRepository,
+                validator, entityManager, transactionManager, 2);
+    }
+
+    private static OrderRequestDTO request(long clientId, long productId) {
+        return new OrderRequestDTO(clientId, List.of(new OrderItemRequestDTO(productId, 1)), null);
+    }
+
+    private static OrderImportReader reader(ImportedOrder... orders) {
+        Iterator<ImportedOrder> iterator = List.of(orders).iterator();
+        return new OrderImportReader() {
+            @Override
+            public ImportedOrder next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static ImportedOrder order(int index, OrderRequestDTO request) {
+        return new ImportedOrder(index, "R-" + index, request, null);
+    }
+
+    private static OrderResponseDTO created(long id) {
+        OrderResponseDTO response = new OrderResponseDTO();
+        response.setId(id);
+        response.setTotal(new BigDecimal("120.00"));
+        return response;
+    }
+
+    @Test
+    void importOrders_loadsClientsAndLocksProductsOncePerChunk() throws Exception {
+        // Arrange
+        when(clientRepository.findAllById(any())).thenReturn(List.of(Client.builder().id(1L).build()));
+        when(productRepository.lockAllByIdIn(any())).thenReturn(List.of(Product.builder().id(10L).build()));
+        when(orderService.createOrder(any(), anyMap(), anyMap())).thenReturn(created(100L));
+
+        // Act
+        orderImportService.importOrders(reader(
+                order(1, request(1, 10)), order(2, request(1, 10)),
+                order(3, request(1, 10)), order(4, request(1, 10)),
+                order(5, request(1, 10))), null, results::add);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == OrderImportStatus.CREATED));
+        assertEquals(100L, results.get(0).getOrderId());
+        verify(clientRepository, times(3)).findAllById(any());
+        verify(productRepository, times(3)).lockAllByIdIn(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void importOrders_locksProductsOfTheWholeChunkBeforeCreatingOrders() throws Exception {
+        // Arrange
+        when(orderService.createOrder(any(), anyMap(), anyMap())).thenReturn(created(100L));
+
+        // Act
+        orderImportService.importOrders(reader(order(1, request(1, 12)), order(2, request(1, 10))), null, results::add);
+
+        // Assert
+        InOrder inOrder = inOrder(productRepository, orderService);
+        inOrder.verify(productRepository).lockAllByIdIn(Set.of(10L, 12L));
+        inOrder.verify(orderService, times(2)).createOrder(any(), anyMap(), anyMap());
+    }
+
+    @Test
+    void importOrders_reportsEachOrderSeparately() throws Exception {
+        // Arrange
+        OrderRequestDTO invalid = new OrderRequestDTO(1L, List.of(new OrderItemRequestDTO(10L, 0)), null);
+        OrderRequestDTO unknownClient = request(9, 10);
+        OrderRequestDTO shortOfStock = request(1, 11);
+        when(orderService.createOrder(same(unknownClient), anyMap(), anyMap()))
+                .thenThrow(new ResourceNotFoundException("Client with id 9 not found"));
+        when(orderService.createOrder(same(shortOfStock), anyMap(), anyMap()))
+                .thenThrow(new InsufficientStockException("Insufficient stock"));
+
+        // Act
+        orderImportService.importOrders(reader(
+                order(1, invalid),
+                new ImportedOrder(2, "R-2", null, "Line 3: invalid productId or quantity"),
+                order(3, unknownClient),
+                order(4, shortOfStock)), 10, results::add);
+
+        // Assert
+        assertEquals(OrderImportStatus.FAILED, results.get(0).getStatus());
+        assertEquals("Quantity must be at least 1", results.get(0).getError());
+        assertEquals(OrderImportStatus.FAILED, results.get(1).getStatus());
+        assertEquals("Line 3: invalid productId or quantity", results.get(1).getError());
+        assertEquals(OrderImportStatus.FAILED, results.get(2).getStatus());
+        assertEquals(OrderImportStatus.REJECTED, results.get(3).getStatus());
+        assertEquals("R-4", results.get(3).getReference());
+        verify(orderService, never()).createOrder(same(invalid), anyMap(), anyMap());
+    }
+
+    @Test
+    void importOrders_databaseError_failsWholeChunkOnly() throws Exception {
+        // Arrange
+        OrderRequestDTO broken = request(1, 12);
+        when(orderService.createOrder(any(), anyMap(), anyMap())).thenReturn(created(100L));
+        when(orderService.createOrder(same(broken), anyMap(), anyMap()))
+                .thenThrow(new DataIntegrityViolationException("constraint violated"));
+
+        // Act
+        orderImportService.importOrders(reader(
+                order(1, request(1, 10)), order(2, broken),
+                order(3, request(1, 10))), 2, results::add);
+
+        // Assert
+        assertEquals(OrderImportStatus.FAILED, results.get(0).getStatus());
+        assertTrue(results.get(0).getError().startsWith("Chunk rolled back"));
+        assertEquals(OrderImportStatus.FAILED, results.get(1).getStatus());
+        assertEquals(OrderImportStatus.CREATED, results.get(2).getStatus());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+}
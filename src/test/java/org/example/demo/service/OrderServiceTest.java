@@ -2,9 +2,13 @@ package org.example.demo.service;
 
 import org.example.demo.dto.request.OrderItemRequestDTO;
 import org.example.demo.dto.request.OrderRequestDTO;
+import org.example.demo.dto.response.OrderPageResponseDTO;
 import org.example.demo.dto.response.OrderResponseDTO;
 import org.example.demo.enums.CustomerTier;
 import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.StockMovementType;
+import org.example.demo.event.OrderConfirmedEvent;
+import org.example.demo.event.OrderStatusChangedEvent;
 import org.example.demo.exception.InsufficientStockException;
 import org.example.demo.exception.InvalidOrderException;
 import org.example.demo.exception.OrderStatusException;
@@ -22,17 +26,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,9 +59,21 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
     @Mock
     private OrderMapper orderMapper;
 
+    @Spy
+    private PricingRules pricingRules = PricingRules.defaults();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -61,9 +85,6 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Set VAT rate
-        ReflectionTestUtils.setField(orderService, "vatRate", new BigDecimal("0.20"));
-
         // Initialize client
         client = Client.builder()
                 .id(1L)
@@ -127,7 +148,7 @@ class OrderServiceTest {
     void createOrder_ShouldCreateOrderSuccessfully() {
         // Arrange
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
@@ -137,9 +158,9 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         verify(clientRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findAllById(anyCollection());
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(stockReservationService, times(1)).reserve(eq(1L), anyMap());
     }
 
     @Test
@@ -157,7 +178,7 @@ class OrderServiceTest {
     void createOrder_WhenProductNotFound_ShouldThrowException() {
         // Arrange
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () ->
@@ -168,14 +189,31 @@ class OrderServiceTest {
     @Test
     void createOrder_WhenInsufficientStock_ShouldThrowException() {
         // Arrange
-        product.setStockQuantity(2); // Less than requested 5
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(stockReservationService.checkAndLock(Map.of(1L, 5)))
+                .thenReturn(Optional.of(new StockReservationService.StockShortage(1L, 2, 5))); // Less than requested 5
+
+        // Act & Assert
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class, () ->
+                orderService.createOrder(orderRequestDTO));
+        assertTrue(exception.getMessage().endsWith("Available: 2, Requested: 5"));
+    }
+
+    @Test
+    void createOrder_WhenStockTakenConcurrently_ShouldNotSaveOrder() {
+        // Arrange
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(stockReservationService.checkAndLock(anyMap()))
+                .thenReturn(Optional.of(new StockReservationService.StockShortage(1L, 0, 5)));
 
         // Act & Assert
         assertThrows(InsufficientStockException.class, () ->
                 orderService.createOrder(orderRequestDTO));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(stockReservationService, never()).reserve(any(), anyMap());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -183,7 +221,7 @@ class OrderServiceTest {
         // Arrange
         product.setIsDeleted(true);
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
 
         // Act & Assert
         assertThrows(InvalidOrderException.class, () ->
@@ -226,7 +264,7 @@ class OrderServiceTest {
         // Arrange
         orderRequestDTO.setPromoCode("PROMO-AB12");
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
@@ -243,7 +281,7 @@ class OrderServiceTest {
         // Arrange
         orderRequestDTO.setPromoCode("INVALID");
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
 
         // Act & Assert
         assertThrows(InvalidOrderException.class, () ->
@@ -260,7 +298,7 @@ class OrderServiceTest {
         orderRequestDTO.setOrderItems(List.of(orderItemRequestDTO));
 
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
@@ -277,7 +315,6 @@ class OrderServiceTest {
         // Arrange
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
         // Act
@@ -287,7 +324,6 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(OrderStatus.CONFIRMED, order.getStatus());
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(clientRepository, times(1)).save(any(Client.class));
     }
 
     @Test
@@ -312,60 +348,55 @@ class OrderServiceTest {
     }
 
     @Test
-    void confirmOrder_ShouldUpdateClientStatistics() {
+    void confirmOrder_ShouldPublishEventInsteadOfUpdatingClient() {
         // Arrange
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
         // Act
         orderService.confirmOrder(1L);
 
         // Assert
-        assertEquals(1, client.getTotalOrders());
-        assertTrue(client.getTotalSpent() > 0);
-        assertNotNull(client.getFirstOrderDate());
-        assertNotNull(client.getLastOrderDate());
-        verify(clientRepository, times(1)).save(client);
+        verify(eventPublisher, times(1)).publishEvent(new OrderConfirmedEvent(
+                order.getId(), client.getId(), order.getTotal(), order.getOrderDate()));
+        verify(clientRepository, never()).save(any(Client.class));
+        assertEquals(0, client.getTotalOrders());
     }
 
     @Test
-    void confirmOrder_ShouldUpdateClientTierToSilver_WhenCriteriaIsMet() {
+    void cancelOrder_ShouldUpdateOrderStatusToCanceled() {
         // Arrange
-        client.setTotalOrders(2); // After confirmation, will be 3
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
         // Act
-        orderService.confirmOrder(1L);
+        OrderResponseDTO result = orderService.cancelOrder(1L);
 
         // Assert
-        assertEquals(CustomerTier.SILVER, client.getFidelityLevel());
+        assertNotNull(result);
+        assertEquals(OrderStatus.CANCELED, order.getStatus());
+        verify(orderRepository, times(1)).save(any(Order.class));
     }
 
     @Test
-    void cancelOrder_ShouldUpdateOrderStatusToCanceled() {
+    void cancelOrder_ShouldRestoreProductStock() {
         // Arrange
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
         // Act
-        OrderResponseDTO result = orderService.cancelOrder(1L);
+        orderService.cancelOrder(1L);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(OrderStatus.CANCELED, order.getStatus());
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(stockReservationService, times(1)).release(order, StockMovementType.CANCEL_RELEASE);
     }
 
     @Test
-    void cancelOrder_ShouldRestoreProductStock() {
+    void cancelOrder_ShouldPublishStatusChangeFromPending() {
         // Arrange
-        int initialStock = product.getStockQuantity();
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
@@ -374,8 +405,12 @@ class OrderServiceTest {
         orderService.cancelOrder(1L);
 
         // Assert
-        assertEquals(initialStock + 5, product.getStockQuantity());
-        verify(productRepository, times(1)).save(product);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof OrderStatusChangedEvent changed
+                        && changed.previousStatus() == OrderStatus.PENDING
+                        && changed.status() == OrderStatus.CANCELED
+                        && changed.orderId().equals(order.getId())));
+        verify(outboxService, times(1)).orderStatusChanged(argThat(changed -> changed.status() == OrderStatus.CANCELED));
     }
 
     @Test
@@ -418,7 +453,6 @@ class OrderServiceTest {
     @Test
     void rejectOrder_ShouldRestoreProductStock() {
         // Arrange
-        int initialStock = product.getStockQuantity();
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
@@ -427,8 +461,7 @@ class OrderServiceTest {
         orderService.rejectOrder(1L);
 
         // Assert
-        assertEquals(initialStock + 5, product.getStockQuantity());
-        verify(productRepository, times(1)).save(product);
+        verify(stockReservationService, times(1)).release(order, StockMovementType.REJECT_RELEASE);
     }
 
     @Test
@@ -453,37 +486,69 @@ class OrderServiceTest {
     }
 
     @Test
-    void getOrdersByClient_ShouldReturnListOfOrders() {
+    void getOrdersByClient_ShouldReturnFirstPage() {
         // Arrange
-        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(orderRepository.findByClientOrderByOrderDateDesc(client)).thenReturn(List.of(order));
+        when(clientRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findFirstIdsByClient(eq(1L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderRepository.findByIdInOrderByOrderDateDescIdDesc(List.of(1L))).thenReturn(List.of(order));
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
         // Act
-        List<OrderResponseDTO> result = orderService.getOrdersByClient(1L);
+        OrderPageResponseDTO result = orderService.getOrdersByClient(1L, null, null, 20);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(orderRepository, times(1)).findByClientOrderByOrderDateDesc(client);
+        assertEquals(1, result.getOrders().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursorId());
+        verify(orderRepository, times(1)).findFirstIdsByClient(1L, PageRequest.of(0, 21));
+    }
+
+    @Test
+    void getOrdersByClient_WhenMoreRowsThanPageSize_ShouldReturnCursor() {
+        // Arrange
+        LocalDateTime cursorDate = LocalDateTime.of(2025, 1, 1, 10, 0);
+        orderResponseDTO.setOrderDate(cursorDate.minusDays(1));
+        when(clientRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findIdsByClientBefore(eq(1L), eq(cursorDate), eq(9L), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(orderRepository.findByIdInOrderByOrderDateDescIdDesc(List.of(1L))).thenReturn(List.of(order));
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
+
+        // Act
+        OrderPageResponseDTO result = orderService.getOrdersByClient(1L, cursorDate, 9L, 1);
+
+        // Assert
+        assertTrue(result.isHasNext());
+        assertEquals(1L, result.getNextCursorId());
+        assertEquals(cursorDate.minusDays(1), result.getNextCursorDate());
+    }
+
+    @Test
+    void getOrdersByClient_WhenOnlyOneCursorPartGiven_ShouldThrowException() {
+        // Arrange
+        when(clientRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(InvalidOrderException.class, () ->
+                orderService.getOrdersByClient(1L, LocalDateTime.now(), null, 20));
     }
 
     @Test
     void getOrdersByClient_WhenClientNotFound_ShouldThrowException() {
         // Arrange
-        when(clientRepository.findById(1L)).thenReturn(Optional.empty());
+        when(clientRepository.existsById(1L)).thenReturn(false);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () ->
-                orderService.getOrdersByClient(1L));
+                orderService.getOrdersByClient(1L, null, null, 20));
     }
 
     @Test
     void createOrder_ShouldDecrementProductStock() {
         // Arrange
-        int initialStock = product.getStockQuantity();
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
@@ -491,8 +556,8 @@ class OrderServiceTest {
         orderService.createOrder(orderRequestDTO);
 
         // Assert
-        assertEquals(initialStock - 5, product.getStockQuantity());
-        verify(productRepository, times(1)).save(product);
+        verify(stockReservationService, times(1)).reserve(1L, Map.of(1L, 5));
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
@@ -517,8 +582,7 @@ class OrderServiceTest {
         orderRequestDTO.setOrderItems(List.of(item1, item2));
 
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product, product2));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(any(Order.class))).thenReturn(orderResponseDTO);
 
@@ -527,6 +591,32 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(productRepository, times(2)).save(any(Product.class));
+        verify(productRepository, times(1)).findAllById(anyCollection());
+        verify(stockReservationService, times(1)).reserve(1L, Map.of(1L, 5, 2L, 2));
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void createOrder_WhenSameProductOnSeveralLines_ShouldCheckCombinedQuantity() {
+        // Arrange
+        OrderItemRequestDTO item1 = new OrderItemRequestDTO();
+        item1.setProductId(1L);
+        item1.setQuantity(5);
+
+        OrderItemRequestDTO item2 = new OrderItemRequestDTO();
+        item2.setProductId(1L);
+        item2.setQuantity(5);
+
+        orderRequestDTO.setOrderItems(List.of(item1, item2));
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(stockReservationService.checkAndLock(Map.of(1L, 10)))
+                .thenReturn(Optional.of(new StockReservationService.StockShortage(1L, 8, 10)));
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () ->
+                orderService.createOrder(orderRequestDTO));
+        verify(stockReservationService).checkAndLock(Map.of(1L, 10));
     }
 }
@@ -0,0 +1,168 @@
+package org.example.demo.service;
+
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.enums.OutboxEventType;
+import org.example.demo.model.OutboxEvent;
+import org.example.demo.outbox.InMemoryOutboxSink;
+import org.example.demo.outbox.OutboxMessage;
+import org.example.demo.outbox.OutboxSink;
+import org.example.demo.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<Collection<Long>> published;
+
+    private OutboxRelay relay;
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void relay_ShouldDeliverEachAggregateInOrderAndMarkPublished() {
+        // Arrange
+        InMemoryOutboxSink sink = new InMemoryOutboxSink();
+        relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, 100, 4, Duration.ofDays(7));
+        List<OutboxEvent> events = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            events.add(event(id, OutboxAggregateType.ORDER, id % 5));
+        }
+        events.add(event(31L, OutboxAggregateType.PAYMENT, 1L));
+        when(outboxEventRepository.lockPending(any(Pageable.class))).thenReturn(events);
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert
+        assertEquals(31, delivered);
+        assertEquals(31, sink.messages().size());
+        for (long aggregateId = 0; aggregateId < 5; aggregateId++) {
+            long id = aggregateId;
+            List<Long> ids = sink.messages().stream()
+                    .filter(m -> m.aggregateType() == OutboxAggregateType.ORDER && m.aggregateId() == id)
+                    .map(OutboxMessage::id)
+                    .toList();
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+        verify(outboxEventRepository).markPublished(published.capture(), any(LocalDateTime.class));
+        assertEquals(31, published.getValue().size());
+        verify(outboxEventRepository, never()).recordFailure(anyLong(), any());
+        // A batch smaller than batch-size means the outbox is drained
+        verify(outboxEventRepository, times(1)).lockPending(any(Pageable.class));
+    }
+
+    @Test
+    void relay_WhenDeliveryFails_ShouldHoldBackLaterEventsOfThatAggregate() {
+        // Arrange
+        List<Long> attempted = new ArrayList<>();
+        OutboxSink sink = message -> {
+            synchronized (attempted) {
+                attempted.add(message.id());
+            }
+            if (message.id() == 1L) {
+                throw new IOException("accounting unreachable");
+            }
+        };
+        relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, 3, 2, Duration.ofDays(7));
+        when(outboxEventRepository.lockPending(any(Pageable.class))).thenReturn(List.of(
+                event(1L, OutboxAggregateType.ORDER, 10L),
+                event(2L, OutboxAggregateType.PAYMENT, 20L),
+                event(3L, OutboxAggregateType.ORDER, 10L)));
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert
+        assertEquals(1, delivered);
+        assertFalse(attempted.contains(3L));
+        verify(outboxEventRepository).markPublished(eq(List.of(2L)), any(LocalDateTime.class));
+        verify(outboxEventRepository).recordFailure(1L, "accounting unreachable");
+        // Full batch, but with a failure: the rest waits for the next run
+        verify(outboxEventRepository, times(1)).lockPending(any(Pageable.class));
+    }
+
+    @Test
+    void relay_WhenBatchIsFull_ShouldDrainTheNextOne() {
+        // Arrange
+        InMemoryOutboxSink sink = new InMemoryOutboxSink();
+        relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, 2, 1, Duration.ofDays(7));
+        when(outboxEventRepository.lockPending(any(Pageable.class)))
+                .thenReturn(List.of(event(1L, OutboxAggregateType.ORDER, 1L), event(2L, OutboxAggregateType.ORDER, 2L)))
+                .thenReturn(List.of(event(3L, OutboxAggregateType.ORDER, 1L)));
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert
+        assertEquals(3, delivered);
+        assertEquals(List.of(1L, 2L, 3L), sink.messages().stream().map(OutboxMessage::id).toList());
+        verify(outboxEventRepository, times(2)).lockPending(any(Pageable.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void relay_WhenSinkCannotFlush_ShouldLeaveBatchPending() {
+        // Arrange
+        OutboxSink sink = new OutboxSink() {
+            @Override
+            public void deliver(OutboxMessage message) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, 10, 2, Duration.ofDays(7));
+        when(outboxEventRepository.lockPending(any(Pageable.class)))
+                .thenReturn(List.of(event(1L, OutboxAggregateType.ORDER, 1L)));
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert
+        assertEquals(0, delivered);
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static OutboxEvent event(Long id, OutboxAggregateType type, Long aggregateId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(type)
+                .aggregateId(aggregateId)
+                .eventType(type == OutboxAggregateType.ORDER ? OutboxEventType.ORDER_CONFIRMED : OutboxEventType.PAYMENT_CASHED)
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
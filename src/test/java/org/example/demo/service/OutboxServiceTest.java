@@ -0,0 +1,78 @@
+package org.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.OutboxAggregateType;
+import org.example.demo.enums.OutboxEventType;
+import org.example.demo.enums.PaymentStatus;
+import org.example.demo.enums.PaymentType;
+import org.example.demo.event.OrderStatusChangedEvent;
+import org.example.demo.event.PaymentStatusChangedEvent;
+import org.example.demo.model.OutboxEvent;
+import org.example.demo.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxEventRepository, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void orderStatusChanged_ShouldStorePendingEventForTheOrder() throws Exception {
+        // Arrange
+        OrderStatusChangedEvent event = new OrderStatusChangedEvent(5L, LocalDateTime.of(2024, 6, 3, 9, 0),
+                CustomerTier.GOLD, OrderStatus.PENDING, OrderStatus.REJECTED, new BigDecimal("100.00"),
+                BigDecimal.ZERO, new BigDecimal("120.00"), List.of());
+
+        // Act
+        outboxService.orderStatusChanged(event);
+
+        // Assert
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(saved.capture());
+        assertEquals(OutboxAggregateType.ORDER, saved.getValue().getAggregateType());
+        assertEquals(5L, saved.getValue().getAggregateId());
+        assertEquals(OutboxEventType.ORDER_REJECTED, saved.getValue().getEventType());
+        assertNull(saved.getValue().getPublishedAt());
+        assertEquals("REJECTED", new ObjectMapper().readTree(saved.getValue().getPayload()).get("status").asText());
+    }
+
+    @Test
+    void paymentStatusChanged_ShouldUseThePaymentAsAggregate() {
+        // Arrange
+        PaymentStatusChangedEvent event = new PaymentStatusChangedEvent(7L, 1L, 2, new BigDecimal("250.00"),
+                PaymentType.CHECK, PaymentStatus.PENDING, PaymentStatus.CASHED, LocalDate.of(2024, 6, 3));
+
+        // Act
+        outboxService.paymentStatusChanged(event);
+
+        // Assert
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(saved.capture());
+        assertEquals(OutboxAggregateType.PAYMENT, saved.getValue().getAggregateType());
+        assertEquals(7L, saved.getValue().getAggregateId());
+        assertEquals(OutboxEventType.PAYMENT_CASHED, saved.getValue().getEventType());
+    }
+}
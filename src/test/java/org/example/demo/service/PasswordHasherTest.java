@@ -0,0 +1,84 @@
+package org.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.demo.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher = new PasswordHasher(4, 2, 8, Duration.ofSeconds(5), Duration.ofSeconds(60),
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void hash_usesConfiguredStrength() {
+        // Act
+        String hash = passwordHasher.hash("secret");
+
+        // Assert
+        assertTrue(hash.startsWith("$2a$04$"));
+    }
+
+    @Test
+    void matches_acceptsCorrectPasswordAndRejectsWrongOne() {
+        // Arrange
+        String hash = passwordHasher.hash("secret");
+
+        // Act & Assert
+        assertTrue(passwordHasher.matches("alice", "secret", hash));
+        assertFalse(passwordHasher.matches("alice", "wrong", hash));
+    }
+
+    @Test
+    void matches_cachedVerificationDoesNotAcceptOtherPasswords() {
+        // Arrange
+        String hash = passwordHasher.hash("secret");
+        assertTrue(passwordHasher.matches("alice", "secret", hash));
+
+        // Act & Assert
+        assertTrue(passwordHasher.matches("alice", "secret", hash));
+        assertFalse(passwordHasher.matches("alice", "secret2", hash));
+    }
+
+    @Test
+    void matches_cachedVerificationIsTiedToStoredHash() {
+        // Arrange
+        String oldHash = passwordHasher.hash("secret");
+        String newHash = passwordHasher.hash("changed");
+        assertTrue(passwordHasher.matches("alice", "secret", oldHash));
+
+        // Act & Assert
+        assertFalse(passwordHasher.matches("alice", "secret", newHash));
+    }
+
+    @Test
+    void hash_whenPoolAndQueueAreFull_throwsServiceBusy() throws InterruptedException {
+        // Arrange
+        passwordHasher.shutdown();
+        passwordHasher = new PasswordHasher(14, 1, 1, Duration.ofSeconds(30), Duration.ofSeconds(60),
+                new SimpleMeterRegistry());
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // one hash running, one queued
+            callers.submit(() -> passwordHasher.hash("secret"));
+            callers.submit(() -> passwordHasher.hash("secret"));
+            Thread.sleep(200);
+
+            // Act & Assert
+            assertThrows(ServiceBusyException.class, () -> passwordHasher.hash("secret"));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
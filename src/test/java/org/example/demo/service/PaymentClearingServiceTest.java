@@ -0,0 +1,172 @@
+package org.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.demo.dto.response.PaymentClearingIssueDTO;
+import org.example.demo.dto.response.PaymentClearingReportDTO;
+import org.example.demo.enums.PaymentClearingOutcome;
+import org.example.demo.enums.PaymentStatus;
+import org.example.demo.enums.PaymentType;
+import org.example.demo.importer.CsvClearingFileReader;
+import org.example.demo.model.Order;
+import org.example.demo.model.Payment;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.PaymentRepository;
+import org.example.demo.repository.PendingPaymentRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentClearingServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentClearingService paymentClearingService;
+
+    private final Order order = Order.builder().id(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        paymentClearingService = new PaymentClearingService(paymentRepository, orderRepository, entityManager,
+                outboxService, transactionManager, 2);
+    }
+
+    private static CsvClearingFileReader file(String rows) throws IOException {
+        String csv = "reference,bankName,amount,status,date\n" + rows;
+        return new CsvClearingFileReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Payment pending(long id, String amount) {
+        return Payment.builder().id(id).order(order).amount(new BigDecimal(amount))
+                .paymentType(PaymentType.CHECK).status(PaymentStatus.PENDING).build();
+    }
+
+    @Test
+    void clear_shouldApplyMatchesInChunksAndRestoreBouncedAmountsPerOrder() throws IOException {
+        // Arrange
+        Payment p1 = pending(1L, "100.00");
+        Payment p2 = pending(2L, "200.00");
+        Payment p3 = pending(3L, "300.00");
+        when(paymentRepository.findPendingBankPayments()).thenReturn(List.of(
+                new PendingPaymentRef(1L, "CHQ-1", "BMCE", p1.getAmount()),
+                new PendingPaymentRef(2L, "CHQ-2", "BMCE", p2.getAmount()),
+                new PendingPaymentRef(3L, "CHQ-3", "Attijariwafa  Bank", p3.getAmount())));
+        when(paymentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(p1, p2));
+        when(paymentRepository.findAllById(List.of(3L))).thenReturn(List.of(p3));
+
+        // Act
+        PaymentClearingReportDTO report = paymentClearingService.clear(file("""
+                CHQ-1,BMCE,100,CASHED,2024-03-01
+                chq-2,bmce,200.00,REJECTED,
+                CHQ-3,attijariwafa bank,300,REJECTED,
+                """), null);
+
+        // Assert
+        assertEquals(3, report.getLines());
+        assertEquals(1, report.getCashed());
+        assertEquals(2, report.getRejected());
+        assertTrue(report.getIssues().isEmpty());
+        assertEquals(PaymentStatus.CASHED, p1.getStatus());
+        assertEquals(LocalDate.of(2024, 3, 1), p1.getCashDate());
+        assertEquals(PaymentStatus.REJECTED, p2.getStatus());
+        verify(orderRepository).restoreRemainingAmount(1L, new BigDecimal("200.00"));
+        verify(orderRepository).restoreRemainingAmount(1L, new BigDecimal("300.00"));
+        verify(outboxService, times(3)).paymentStatusChanged(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void clear_shouldReportLinesThatCannotBeApplied() throws IOException {
+        // Arrange
+        Payment p1 = pending(1L, "100.00");
+        p1.setStatus(PaymentStatus.CASHED);
+        when(paymentRepository.findPendingBankPayments()).thenReturn(List.of(
+                new PendingPaymentRef(1L, "CHQ-1", "BMCE", new BigDecimal("100.00")),
+                new PendingPaymentRef(2L, "CHQ-2", "BMCE", new BigDecimal("200.00"))));
+        when(paymentRepository.findAllById(List.of(1L))).thenReturn(List.of(p1));
+
+        // Act
+        PaymentClearingReportDTO report = paymentClearingService.clear(file("""
+                CHQ-1,BMCE,100,CASHED,
+                CHQ-1,BMCE,100,CASHED,
+                CHQ-2,BMCE,250,CASHED,
+                CHQ-9,BMCE,10,CASHED,
+                CHQ-4,BMCE,x,CASHED,
+                """), 10);
+
+        // Assert
+        assertEquals(5, report.getLines());
+        assertEquals(0, report.getCashed());
+        List<PaymentClearingOutcome> outcomes = report.getIssues().stream().map(PaymentClearingIssueDTO::getOutcome).toList();
+        assertEquals(List.of(PaymentClearingOutcome.ALREADY_PROCESSED, PaymentClearingOutcome.UNMATCHED,
+                PaymentClearingOutcome.MISMATCH, PaymentClearingOutcome.UNMATCHED, PaymentClearingOutcome.INVALID), outcomes);
+        assertEquals(2L, report.getIssues().get(2).getPaymentId());
+        verify(orderRepository, never()).restoreRemainingAmount(any(), any());
+    }
+
+    @Test
+    void clear_optimisticLockConflict_shouldRetryTheChunk() throws IOException {
+        // Arrange
+        when(paymentRepository.findPendingBankPayments()).thenReturn(List.of(
+                new PendingPaymentRef(1L, "CHQ-1", "BMCE", new BigDecimal("100.00"))));
+        when(paymentRepository.findAllById(List.of(1L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Payment.class, 1L))
+                .thenReturn(List.of(pending(1L, "100.00")));
+
+        // Act
+        PaymentClearingReportDTO report = paymentClearingService.clear(file("CHQ-1,BMCE,100,CASHED,\n"), null);
+
+        // Assert
+        assertEquals(1, report.getCashed());
+        assertTrue(report.getIssues().isEmpty());
+    }
+
+    @Test
+    void clear_databaseError_shouldFailTheWholeChunk() throws IOException {
+        // Arrange
+        when(paymentRepository.findPendingBankPayments()).thenReturn(List.of(
+                new PendingPaymentRef(1L, "CHQ-1", "BMCE", new BigDecimal("100.00")),
+                new PendingPaymentRef(2L, "CHQ-2", "BMCE", new BigDecimal("200.00"))));
+        when(paymentRepository.findAllById(any())).thenThrow(new DataIntegrityViolationException("constraint violated"));
+
+        // Act
+        PaymentClearingReportDTO report = paymentClearingService.clear(file("""
+                CHQ-1,BMCE,100,CASHED,
+                CHQ-2,BMCE,200,CASHED,
+                """), null);
+
+        // Assert
+        assertEquals(2, report.getIssues().size());
+        assertTrue(report.getIssues().stream().allMatch(i -> i.getOutcome() == PaymentClearingOutcome.FAILED));
+        assertTrue(report.getIssues().get(0).getError().startsWith("Chunk rolled back"));
+    }
+}
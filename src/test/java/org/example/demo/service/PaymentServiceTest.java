@@ -0,0 +1,246 @@
+package org.example.demo.service;
+
+import org.example.demo.dto.request.PaymentRequestDTO;
+import org.example.demo.dto.request.PaymentStatusUpdateDTO;
+import org.example.demo.dto.response.PaymentResponseDTO;
+import org.example.demo.dto.response.PaymentSummaryDTO;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.enums.PaymentStatus;
+import org.example.demo.enums.PaymentType;
+import org.example.demo.exception.CashLimitExceededException;
+import org.example.demo.exception.InvalidOrderException;
+import org.example.demo.exception.OrderStatusException;
+import org.example.demo.exception.ResourceNotFoundException;
+import org.example.demo.mappers.PaymentMapper;
+import org.example.demo.model.Order;
+import org.example.demo.model.Payment;
+import org.example.demo.repository.OrderPaymentSummary;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.PaymentRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Spy
+    private PaymentMapper paymentMapper = new PaymentMapper();
+
+    @Mock
+    private OutboxService outboxService;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = Order.builder().id(1L).status(OrderStatus.PENDING).build();
+    }
+
+    private OrderPaymentSummary summary(OrderStatus status, String remaining, int lastPaymentNumber) {
+        return new OrderPaymentSummary(1L, status, new BigDecimal(remaining), lastPaymentNumber,
+                BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    @Test
+    void addPayment_ShouldNumberFromSummaryAndDeductAtomically() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "1000.00", 4)));
+        when(orderRepository.deductRemainingAmount(1L, new BigDecimal("300.00"))).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        // A concurrent 50.00 payment was deducted between the summary read and this one
+        when(orderRepository.findRemainingAmountById(1L)).thenReturn(new BigDecimal("650.00"));
+
+        // Act
+        PaymentResponseDTO result = paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("300"), PaymentType.CASH, null, null, null));
+
+        // Assert
+        assertEquals(5, result.getPaymentNumber());
+        assertEquals(PaymentStatus.CASHED, result.getStatus());
+        assertEquals(new BigDecimal("650.00"), result.getRemainingAmount());
+        verify(orderRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void addPayment_WhenCash_ShouldRecordCashedEvent() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "1000.00", 0)));
+        when(orderRepository.deductRemainingAmount(1L, new BigDecimal("300.00"))).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        paymentService.addPayment(1L, new PaymentRequestDTO(new BigDecimal("300"), PaymentType.CASH, null, null, null));
+
+        // Assert
+        verify(outboxService).paymentStatusChanged(argThat(event -> event.orderId().equals(1L)
+                && event.previousStatus() == null
+                && event.status() == PaymentStatus.CASHED
+                && event.amount().equals(new BigDecimal("300.00"))));
+    }
+
+    @Test
+    void addPayment_WhenCheque_ShouldWaitForClearingBeforeRecordingEvent() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "1000.00", 0)));
+        when(orderRepository.deductRemainingAmount(1L, new BigDecimal("300.00"))).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        paymentService.addPayment(1L, new PaymentRequestDTO(new BigDecimal("300"), PaymentType.CHECK, "CHQ-1",
+                "BMCE", LocalDate.now().plusDays(30)));
+
+        // Assert
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void addPayment_WhenConcurrentPaymentTookRemainingAmount_ShouldThrow() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "1000.00", 0)));
+        when(orderRepository.deductRemainingAmount(1L, new BigDecimal("800.00"))).thenReturn(0);
+        when(orderRepository.findStatusById(1L)).thenReturn(OrderStatus.PENDING);
+
+        // Act & Assert
+        assertThrows(InvalidOrderException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("800"), PaymentType.CASH, null, null, null)));
+        verify(paymentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void addPayment_WhenOrderCanceledAfterSummaryRead_ShouldRefusePayment() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "1000.00", 0)));
+        when(orderRepository.deductRemainingAmount(1L, new BigDecimal("300.00"))).thenReturn(0);
+        when(orderRepository.findStatusById(1L)).thenReturn(OrderStatus.CANCELED);
+
+        // Act & Assert
+        assertThrows(OrderStatusException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("300"), PaymentType.CASH, null, null, null)));
+        verify(paymentRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void addPayment_WhenAmountExceedsRemaining_ShouldThrowBeforeWriting() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "100.00", 0)));
+
+        // Act & Assert
+        assertThrows(InvalidOrderException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("100.01"), PaymentType.CASH, null, null, null)));
+        verify(orderRepository, never()).deductRemainingAmount(any(), any());
+    }
+
+    @Test
+    void addPayment_WhenPaymentNumberTaken_ShouldReportRetryableConflict() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "1000.00", 2)));
+        when(orderRepository.deductRemainingAmount(1L, new BigDecimal("100.00"))).thenReturn(1);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_PAYMENTS_ORDER_NUMBER_INDEX_8")));
+
+        // Act & Assert
+        assertThrows(ConcurrencyFailureException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("100"), PaymentType.CASH, null, null, null)));
+    }
+
+    @Test
+    void addPayment_WhenOrderNotPending_ShouldThrow() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.CONFIRMED, "0.00", 2)));
+
+        // Act & Assert
+        assertThrows(OrderStatusException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("10"), PaymentType.CASH, null, null, null)));
+    }
+
+    @Test
+    void addPayment_WhenCashOverLimit_ShouldThrow() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(summary(OrderStatus.PENDING, "50000.00", 0)));
+
+        // Act & Assert
+        assertThrows(CashLimitExceededException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("20000.01"), PaymentType.CASH, null, null, null)));
+    }
+
+    @Test
+    void addPayment_WhenOrderMissing_ShouldThrow() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> paymentService.addPayment(1L,
+                new PaymentRequestDTO(new BigDecimal("10"), PaymentType.CASH, null, null, null)));
+    }
+
+    @Test
+    void updatePaymentStatus_WhenRejected_ShouldRestoreRemainingAmount() {
+        // Arrange
+        Payment payment = Payment.builder().id(7L).order(order).paymentNumber(1)
+                .amount(new BigDecimal("250.00")).paymentType(PaymentType.CHECK)
+                .status(PaymentStatus.PENDING).dueDate(LocalDate.now()).build();
+        when(paymentRepository.findById(7L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(payment)).thenReturn(payment);
+        when(orderRepository.findRemainingAmountById(1L)).thenReturn(new BigDecimal("750.00"));
+        PaymentStatusUpdateDTO req = new PaymentStatusUpdateDTO();
+        req.setStatus(PaymentStatus.REJECTED);
+
+        // Act
+        PaymentResponseDTO result = paymentService.updatePaymentStatus(7L, req);
+
+        // Assert
+        assertEquals(PaymentStatus.REJECTED, result.getStatus());
+        assertEquals(new BigDecimal("750.00"), result.getRemainingAmount());
+        verify(orderRepository).restoreRemainingAmount(1L, new BigDecimal("250.00"));
+        verify(outboxService).paymentStatusChanged(argThat(event -> event.paymentId().equals(7L)
+                && event.previousStatus() == PaymentStatus.PENDING
+                && event.status() == PaymentStatus.REJECTED));
+    }
+
+    @Test
+    void getPaymentSummary_ShouldExposeLedgerTotals() {
+        // Arrange
+        when(paymentRepository.findSummaryByOrderId(1L)).thenReturn(Optional.of(new OrderPaymentSummary(
+                1L, OrderStatus.PENDING, new BigDecimal("400.00"), 3, new BigDecimal("500.00"), new BigDecimal("300.00"))));
+
+        // Act
+        PaymentSummaryDTO result = paymentService.getPaymentSummary(1L);
+
+        // Assert
+        assertEquals(4, result.getNextPaymentNumber());
+        assertEquals(new BigDecimal("500.00"), result.getCashedTotal());
+        assertEquals(new BigDecimal("300.00"), result.getPendingTotal());
+        assertEquals(new BigDecimal("400.00"), result.getRemainingAmount());
+    }
+}
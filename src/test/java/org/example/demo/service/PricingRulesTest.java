@@ -0,0 +1,59 @@
+package org.example.demo.service;
+
+import org.example.demo.enums.CustomerTier;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingRulesTest {
+
+    private final PricingRules pricingRules = PricingRules.defaults();
+
+    @Test
+    void price_WithSilverTierAndPromo_ShouldCumulateDiscounts() {
+        // Act
+        PricingRules.PriceBreakdown price = pricingRules.price(CustomerTier.SILVER, new BigDecimal("600.00"), true);
+
+        // Assert
+        assertEquals(new BigDecimal("60.00"), price.discount());
+        assertEquals(new BigDecimal("108.00"), price.vat());
+        assertEquals(new BigDecimal("648.00"), price.total());
+    }
+
+    @Test
+    void price_WhenSubtotalBelowTierMinimum_ShouldOnlyAddVat() {
+        // Act
+        PricingRules.PriceBreakdown price = pricingRules.price(CustomerTier.GOLD, new BigDecimal("799.99"), false);
+
+        // Assert
+        assertEquals(new BigDecimal("0.00"), price.discount());
+        assertEquals(new BigDecimal("160.00"), price.vat());
+        assertEquals(new BigDecimal("959.99"), price.total());
+    }
+
+    @Test
+    void price_ShouldRoundHalfUpAtEachStep() {
+        // Act
+        PricingRules.PriceBreakdown price = pricingRules.price(CustomerTier.PLATINUM, new BigDecimal("1234.56"), false);
+
+        // Assert
+        assertEquals(new BigDecimal("185.18"), price.discount());
+        assertEquals(new BigDecimal("209.88"), price.vat());
+        assertEquals(new BigDecimal("1259.26"), price.total());
+    }
+
+    @Test
+    void loyaltyDiscount_ForBasicTier_ShouldBeZero() {
+        assertEquals(new BigDecimal("0.00"), pricingRules.loyaltyDiscount(CustomerTier.BASIC, new BigDecimal("50000.00")));
+    }
+
+    @Test
+    void isValidPromoCode_ShouldMatchPromoFormatOnly() {
+        assertTrue(pricingRules.isValidPromoCode("PROMO-AB12"));
+        assertFalse(pricingRules.isValidPromoCode("PROMO-ab12"));
+        assertFalse(pricingRules.isValidPromoCode("PROMO-AB123"));
+        assertFalse(pricingRules.isValidPromoCode(null));
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.demo.service;
+
+import org.example.demo.cache.CacheConfig;
+import org.example.demo.dto.request.ProductRequestUpdateDTO;
+import org.example.demo.dto.response.ProductResponseDTO;
+import org.example.demo.mappers.ProductMapper;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.StockMovementRepository;
+import org.example.demo.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, ProductService.class, ProductMapper.class})
+class ProductServiceCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @MockBean
+    private StockReservationService stockReservationService;
+
+    @MockBean
+    private StockMovementRepository stockMovementRepository;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .description("Test Description")
+                .unitPrice(new BigDecimal("100.00"))
+                .stockQuantity(50)
+                .isDeleted(false)
+                .build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void getProductById_ShouldHitDatabaseOnce() {
+        // Act
+        productService.getProductById(1L);
+        ProductResponseDTO result = productService.getProductById(1L);
+
+        // Assert
+        assertEquals("Test Product", result.getName());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void updateProduct_ShouldEvictCachedProduct() {
+        // Arrange
+        productService.getProductById(1L);
+        ProductRequestUpdateDTO req = new ProductRequestUpdateDTO();
+        req.setUnitPrice(new BigDecimal("90.00"));
+
+        // Act
+        productService.updateProduct(1L, req);
+        ProductResponseDTO result = productService.getProductById(1L);
+
+        // Assert
+        assertEquals(new BigDecimal("90.00"), result.getUnitPrice());
+    }
+
+    @Test
+    void getAllProducts_ShouldCachePagesUntilDelete() {
+        // Arrange
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(productRepository.findByIsDeletedFalse(pageable)).thenReturn(new PageImpl<>(List.of(product)));
+
+        // Act
+        productService.getAllProducts(pageable);
+        productService.getAllProducts(pageable);
+        productService.deleteProduct(1L);
+        productService.getAllProducts(pageable);
+
+        // Assert
+        verify(productRepository, times(2)).findByIsDeletedFalse(pageable);
+    }
+
+    @Test
+    void updateProduct_WithStockQuantity_ShouldBookAnAdjustment() {
+        // Arrange
+        ProductRequestUpdateDTO req = new ProductRequestUpdateDTO();
+        req.setStockQuantity(80);
+        when(stockReservationService.adjustTo(1L, 80)).thenReturn(80);
+
+        // Act
+        ProductResponseDTO result = productService.updateProduct(1L, req);
+
+        // Assert
+        assertEquals(80, result.getStockQuantity());
+        assertEquals(50, product.getStockQuantity());
+        verify(stockReservationService).adjustTo(1L, 80);
+    }
+
+    @Test
+    void updateProduct_WhenAdjustmentFails_ShouldNotReindexProduct() {
+        // Arrange
+        ProductRequestUpdateDTO req = new ProductRequestUpdateDTO();
+        req.setName("Renamed Product");
+        req.setStockQuantity(80);
+        when(stockReservationService.adjustTo(1L, 80)).thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> productService.updateProduct(1L, req));
+        verify(productSearchIndex, never()).index(any());
+    }
+
+    @Test
+    void deleteProduct_ShouldRemoveProductFromSearchIndex() {
+        // Act
+        productService.deleteProduct(1L);
+
+        // Assert
+        verify(productSearchIndex).remove(1L);
+    }
+
+    @Test
+    void searchProducts_ShouldKeepIndexRankingAndSkipDeletedProducts() {
+        // Arrange
+        Product other = Product.builder()
+                .id(2L)
+                .name("Other Product")
+                .description("Test Description")
+                .unitPrice(new BigDecimal("20.00"))
+                .stockQuantity(5)
+                .isDeleted(false)
+                .build();
+        Product deleted = Product.builder()
+                .id(3L)
+                .name("Deleted Product")
+                .description("Test Description")
+                .unitPrice(new BigDecimal("20.00"))
+                .stockQuantity(5)
+                .isDeleted(true)
+                .build();
+        when(productSearchIndex.search("product", 20)).thenReturn(List.of(
+                new ProductSearchIndex.Hit(2L, 3f), new ProductSearchIndex.Hit(3L, 2f), new ProductSearchIndex.Hit(1L, 1f)));
+        when(productRepository.findAllById(List.of(2L, 3L, 1L))).thenReturn(List.of(product, deleted, other));
+        when(stockReservationService.available(List.of(2L, 3L, 1L))).thenReturn(Map.of(1L, 45, 2L, 5));
+
+        // Act
+        List<ProductResponseDTO> results = productService.searchProducts("product", 20);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), results.stream().map(ProductResponseDTO::getId).toList());
+        assertEquals(45, results.get(1).getStockQuantity());
+    }
+}
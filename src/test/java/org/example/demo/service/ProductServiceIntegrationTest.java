@@ -0,0 +1,58 @@
+package org.example.demo.service;
+
+import org.example.demo.dto.request.ProductRequestUpdateDTO;
+import org.example.demo.model.Product;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+// Runs against the in-memory database: the point is what a failed update leaves behind
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @SpyBean
+    private StockReservationService stockReservationService;
+
+    @Test
+    void updateProduct_WhenAdjustmentFails_ShouldRollBackFieldUpdate() {
+        // Arrange
+        Product product = productRepository.save(Product.builder()
+                .name("Rollback Monitor")
+                .description("Monitor")
+                .unitPrice(new BigDecimal("900.00"))
+                .stockQuantity(5)
+                .build());
+        productSearchIndex.index(product);
+        doThrow(new QueryTimeoutException("timeout")).when(stockReservationService).adjustTo(eq(product.getId()), anyInt());
+        ProductRequestUpdateDTO req = new ProductRequestUpdateDTO();
+        req.setName("Renamed Monitor");
+        req.setStockQuantity(8);
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> productService.updateProduct(product.getId(), req));
+        assertEquals("Rollback Monitor", productRepository.findById(product.getId()).orElseThrow().getName());
+        assertTrue(productSearchIndex.search("renamed", 10).isEmpty());
+    }
+}
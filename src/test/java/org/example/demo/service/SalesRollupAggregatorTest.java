@@ -0,0 +1,225 @@
+package org.example.demo.service;
+
+import org.example.demo.enums.CustomerTier;
+import org.example.demo.enums.OrderStatus;
+import org.example.demo.event.OrderStatusChangedEvent;
+import org.example.demo.model.ProductSalesDailyDelta;
+import org.example.demo.model.ProductSalesDailyRollup;
+import org.example.demo.model.SalesDailyDelta;
+import org.example.demo.model.SalesDailyRollup;
+import org.example.demo.repository.DailySalesTotals;
+import org.example.demo.repository.OrderItemRepository;
+import org.example.demo.repository.OrderRepository;
+import org.example.demo.repository.ProductSalesDailyDeltaRepository;
+import org.example.demo.repository.ProductSalesDailyRollupRepository;
+import org.example.demo.repository.SalesDailyDeltaRepository;
+import org.example.demo.repository.SalesDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupAggregatorTest {
+
+    @Mock
+    private SalesDailyRollupRepository salesRepository;
+
+    @Mock
+    private ProductSalesDailyRollupRepository productSalesRepository;
+
+    @Mock
+    private SalesDailyDeltaRepository salesDeltaRepository;
+
+    @Mock
+    private ProductSalesDailyDeltaRepository productSalesDeltaRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupAggregator aggregator;
+
+    private final LocalDateTime june3 = LocalDateTime.of(2024, 6, 3, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new SalesRollupAggregator(salesRepository, productSalesRepository, salesDeltaRepository,
+                productSalesDeltaRepository, orderRepository, orderItemRepository, transactionManager, 2, 10);
+    }
+
+    // Records the events through the listener and hands the captured delta rows to the next flush
+    @SuppressWarnings("unchecked")
+    private void recordAndStage(OrderStatusChangedEvent... events) {
+        for (OrderStatusChangedEvent event : events) {
+            aggregator.onOrderStatusChanged(event);
+        }
+        ArgumentCaptor<List<SalesDailyDelta>> sales = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<ProductSalesDailyDelta>> productSales = ArgumentCaptor.forClass(List.class);
+        verify(salesDeltaRepository, times(events.length)).saveAll(sales.capture());
+        verify(productSalesDeltaRepository, times(events.length)).saveAll(productSales.capture());
+        List<SalesDailyDelta> salesRows = new ArrayList<>();
+        sales.getAllValues().forEach(salesRows::addAll);
+        List<ProductSalesDailyDelta> productRows = new ArrayList<>();
+        productSales.getAllValues().forEach(productRows::addAll);
+        long id = 1;
+        for (SalesDailyDelta row : salesRows) {
+            row.setId(id++);
+        }
+        for (ProductSalesDailyDelta row : productRows) {
+            row.setId(id++);
+        }
+        when(salesDeltaRepository.findAllByOrderByIdAsc(any())).thenReturn(salesRows);
+        when(productSalesDeltaRepository.findAllByOrderByIdAsc(any())).thenReturn(productRows);
+        lenient().when(salesDeltaRepository.deleteByIds(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        lenient().when(productSalesDeltaRepository.deleteByIds(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+    }
+
+    @Test
+    void onOrderStatusChanged_ShouldRecordDeltaRowsInsteadOfTouchingRollups() {
+        // Act
+        aggregator.onOrderStatusChanged(event(1L, june3, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+
+        // Assert
+        verify(salesDeltaRepository).saveAll(argThat((List<SalesDailyDelta> rows) -> rows.size() == 2
+                && rows.get(0).getStatus() == OrderStatus.PENDING && rows.get(0).getOrders() == -1L
+                && rows.get(1).getStatus() == OrderStatus.CONFIRMED && rows.get(1).getOrders() == 1L));
+        verify(productSalesDeltaRepository).saveAll(argThat((List<ProductSalesDailyDelta> rows) -> rows.size() == 2
+                && rows.get(0).getQuantity() == -4L && rows.get(1).getQuantity() == 4L));
+        verifyNoInteractions(salesRepository, productSalesRepository, transactionManager);
+    }
+
+    @Test
+    void flush_ShouldMoveConfirmedOrderOutOfPendingBucket() {
+        // Arrange
+        recordAndStage(
+                event(1L, june3, null, OrderStatus.PENDING),
+                event(2L, june3, null, OrderStatus.PENDING),
+                event(1L, june3, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        when(salesRepository.addTotals(any(), any(), any(), anyLong(), any(), any(), any())).thenReturn(1);
+        when(productSalesRepository.addTotals(any(), any(), any(), any(), anyLong(), anyLong(), any())).thenReturn(1);
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        LocalDate day = june3.toLocalDate();
+        verify(salesRepository, times(1)).addTotals(day, CustomerTier.GOLD, OrderStatus.PENDING, 1L,
+                new BigDecimal("100.00"), new BigDecimal("10.00"), new BigDecimal("108.00"));
+        verify(salesRepository, times(1)).addTotals(day, CustomerTier.GOLD, OrderStatus.CONFIRMED, 1L,
+                new BigDecimal("100.00"), new BigDecimal("10.00"), new BigDecimal("108.00"));
+        verify(productSalesRepository, times(1)).addTotals(day, 5L, CustomerTier.GOLD, OrderStatus.CONFIRMED,
+                1L, 4L, new BigDecimal("100.00"));
+        verify(salesRepository, never()).save(any());
+        verify(salesDeltaRepository).deleteByIds(List.of(1L, 2L, 3L, 4L));
+    }
+
+    @Test
+    void flush_WhenBucketHasNoRowYet_ShouldInsertIt() {
+        // Arrange
+        recordAndStage(event(1L, june3, null, OrderStatus.PENDING));
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        ArgumentCaptor<SalesDailyRollup> sales = ArgumentCaptor.forClass(SalesDailyRollup.class);
+        verify(salesRepository).save(sales.capture());
+        assertEquals(OrderStatus.PENDING, sales.getValue().getStatus());
+        assertEquals(1L, sales.getValue().getOrders());
+        assertEquals(new BigDecimal("108.00"), sales.getValue().getTotal());
+        ArgumentCaptor<ProductSalesDailyRollup> products = ArgumentCaptor.forClass(ProductSalesDailyRollup.class);
+        verify(productSalesRepository).save(products.capture());
+        assertEquals(4L, products.getValue().getQuantity());
+    }
+
+    @Test
+    void flush_WhenCreatedAndCanceledInSameBatch_ShouldNotWritePendingBucket() {
+        // Arrange
+        recordAndStage(
+                event(1L, june3, null, OrderStatus.PENDING),
+                event(1L, june3, OrderStatus.PENDING, OrderStatus.CANCELED));
+        when(salesRepository.addTotals(any(), any(), any(), anyLong(), any(), any(), any())).thenReturn(1);
+        when(productSalesRepository.addTotals(any(), any(), any(), any(), anyLong(), anyLong(), any())).thenReturn(1);
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        verify(salesRepository, times(1)).addTotals(any(), any(), any(), anyLong(), any(), any(), any());
+        verify(salesRepository, never()).addTotals(any(), any(), eq(OrderStatus.PENDING), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void flush_WhenAnotherNodeClaimedSomeDeltas_ShouldRollBackWithoutApplying() {
+        // Arrange
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        recordAndStage(event(1L, june3, null, OrderStatus.PENDING));
+        doReturn(0).when(salesDeltaRepository).deleteByIds(any());
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        assertTrue(status.isRollbackOnly());
+        verifyNoInteractions(salesRepository, productSalesRepository);
+    }
+
+    @Test
+    void rebuild_ShouldSplitRangeIntoChunksAndDropPendingDeltasInEachSnapshot() {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 6, 1);
+        LocalDate to = LocalDate.of(2024, 6, 30);
+        when(orderRepository.aggregateDailySales(any(), any())).thenReturn(List.of(new DailySalesTotals(
+                LocalDate.of(2024, 6, 3), CustomerTier.GOLD, OrderStatus.PENDING, 1L,
+                new BigDecimal("100.00"), new BigDecimal("10.00"), new BigDecimal("108.00"))));
+
+        // Act
+        int rows = aggregator.rebuild(from, to);
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> starts = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> ends = ArgumentCaptor.forClass(LocalDateTime.class);
+        // 30 days in chunks of at most 10
+        verify(orderRepository, times(4)).aggregateDailySales(starts.capture(), ends.capture());
+        List<LocalDateTime> sortedStarts = starts.getAllValues().stream().sorted().toList();
+        List<LocalDateTime> sortedEnds = ends.getAllValues().stream().sorted(Comparator.naturalOrder()).toList();
+        assertEquals(from.atStartOfDay(), sortedStarts.get(0));
+        assertEquals(to.plusDays(1).atStartOfDay(), sortedEnds.get(3));
+        assertEquals(sortedStarts.subList(1, 4), sortedEnds.subList(0, 3));
+        verify(salesRepository, times(4)).deleteBetween(any(), any());
+        verify(salesDeltaRepository, times(4)).deleteBetween(any(), any());
+        verify(productSalesDeltaRepository, times(4)).deleteBetween(any(), any());
+        verify(transactionManager, times(4)).getTransaction(argThat(definition ->
+                definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        assertEquals(4, rows);
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, LocalDateTime orderDate, OrderStatus previous, OrderStatus status) {
+        return new OrderStatusChangedEvent(orderId, orderDate, CustomerTier.GOLD, previous, status,
+                new BigDecimal("100.00"), new BigDecimal("10.00"), new BigDecimal("108.00"),
+                List.of(new OrderStatusChangedEvent.Line(5L, 4, new BigDecimal("100.00"))));
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.demo.service;
+
+import org.example.demo.cache.CacheConfig;
+import org.example.demo.enums.StockMovementType;
+import org.example.demo.model.Order;
+import org.example.demo.model.OrderItem;
+import org.example.demo.model.Product;
+import org.example.demo.model.StockMovement;
+import org.example.demo.repository.ProductRepository;
+import org.example.demo.repository.ProductStock;
+import org.example.demo.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES);
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @Captor
+    private ArgumentCaptor<List<StockMovement>> movements;
+
+    @Test
+    void checkAndLock_WhenStockAvailable_ShouldBookNothingYet() {
+        // Arrange
+        when(stockMovementRepository.findAvailableStock(Set.of(1L, 2L, 3L))).thenReturn(List.of(
+                new ProductStock(1L, 5L), new ProductStock(2L, 10L), new ProductStock(3L, 1L)));
+
+        // Act
+        Optional<StockReservationService.StockShortage> result =
+                stockReservationService.checkAndLock(Map.of(3L, 1, 1L, 5, 2L, 2));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(stockMovementRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reserve_ShouldAppendOneMovementPerProductInIdOrder() {
+        // Act
+        stockReservationService.reserve(7L, Map.of(3L, 1, 1L, 5, 2L, 2));
+
+        // Assert
+        verify(stockMovementRepository).saveAll(movements.capture());
+        List<StockMovement> booked = movements.getValue();
+        assertEquals(List.of(1L, 2L, 3L), booked.stream().map(StockMovement::getProductId).toList());
+        assertEquals(List.of(-5, -2, -1), booked.stream().map(StockMovement::getQuantity).toList());
+        assertTrue(booked.stream().allMatch(m -> m.getType() == StockMovementType.ORDER_RESERVE && m.getOrderId() == 7L));
+    }
+
+    @Test
+    void checkAndLock_WhenOneProductIsShort_ShouldReturnIt() {
+        // Arrange
+        when(stockMovementRepository.findAvailableStock(Set.of(1L, 2L))).thenReturn(List.of(
+                new ProductStock(1L, 5L), new ProductStock(2L, 1L)));
+
+        // Act
+        Optional<StockReservationService.StockShortage> result =
+                stockReservationService.checkAndLock(Map.of(1L, 5, 2L, 2));
+
+        // Assert
+        assertEquals(Optional.of(new StockReservationService.StockShortage(2L, 1, 2)), result);
+        verify(stockMovementRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void checkAndLock_ShouldLockTheProducts() {
+        // Arrange
+        when(stockMovementRepository.findAvailableStock(Set.of(1L))).thenReturn(List.of(new ProductStock(1L, 5L)));
+
+        // Act
+        stockReservationService.checkAndLock(Map.of(1L, 5));
+
+        // Assert
+        verify(productRepository).lockAllByIdIn(Set.of(1L));
+    }
+
+    @Test
+    void release_ShouldAppendCombinedQuantityPerProductWithoutLocking() {
+        // Arrange
+        Product product = Product.builder().id(1L).build();
+        Order order = Order.builder().id(7L).orderItems(List.of(
+                OrderItem.builder().product(product).quantity(5).build(),
+                OrderItem.builder().product(product).quantity(3).build())).build();
+
+        // Act
+        stockReservationService.release(order, StockMovementType.CANCEL_RELEASE);
+
+        // Assert
+        verify(stockMovementRepository).saveAll(movements.capture());
+        StockMovement movement = movements.getValue().get(0);
+        assertEquals(1, movements.getValue().size());
+        assertEquals(8, movement.getQuantity());
+        assertEquals(StockMovementType.CANCEL_RELEASE, movement.getType());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void adjustTo_ShouldBookTheDifferenceWithAvailability() {
+        // Arrange
+        when(productRepository.lockAllByIdIn(List.of(1L))).thenReturn(List.of(Product.builder().id(1L).build()));
+        when(stockMovementRepository.findAvailableStock(Set.of(1L))).thenReturn(List.of(new ProductStock(1L, 12L)));
+
+        // Act
+        stockReservationService.adjustTo(1L, 20);
+
+        // Assert
+        verify(stockMovementRepository).save(argThat(m -> m.getQuantity() == 8 && m.getType() == StockMovementType.ADJUSTMENT));
+    }
+
+    @Test
+    void reserve_ShouldEvictReservedProductsButKeepCatalogPages() {
+        // Arrange
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(1L, "cached");
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(2L, "cached");
+        cacheManager.getCache(CacheConfig.PRODUCT_PAGES).put("page-0", "cached");
+
+        // Act
+        stockReservationService.reserve(7L, Map.of(1L, 5));
+
+        // Assert
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(1L));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(2L));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCT_PAGES).get("page-0"));
+    }
+}
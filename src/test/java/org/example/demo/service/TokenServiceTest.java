@@ -0,0 +1,71 @@
+package org.example.demo.service;
+
+import org.example.demo.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-01-01T08:00:00Z");
+
+    private final TokenService tokenService = new TokenService(SECRET, Duration.ofHours(8), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void verify_WithIssuedToken_ShouldReturnClaims() {
+        // Act
+        Optional<TokenService.Claims> claims = tokenService.verify(tokenService.issue(42L, UserRole.ADMIN));
+
+        // Assert
+        assertEquals(Optional.of(new TokenService.Claims(42L, UserRole.ADMIN)), claims);
+    }
+
+    @Test
+    void verify_WithTamperedPayload_ShouldReject() {
+        // Arrange: same signature, payload upgraded to another user
+        String token = tokenService.issue(42L, UserRole.CLIENT);
+        String forged = new TokenService(SECRET, Duration.ofHours(8), Clock.fixed(NOW, ZoneOffset.UTC))
+                .issue(1L, UserRole.ADMIN).split("\\.")[0] + "." + token.split("\\.")[1];
+
+        // Act & Assert
+        assertTrue(tokenService.verify(forged).isEmpty());
+    }
+
+    @Test
+    void verify_WithOtherSecret_ShouldReject() {
+        // Arrange
+        TokenService otherNode = new TokenService("another-secret-another-secret-12", Duration.ofHours(8), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(tokenService.verify(otherNode.issue(42L, UserRole.ADMIN)).isEmpty());
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldReject() {
+        // Arrange
+        String token = tokenService.issue(42L, UserRole.ADMIN);
+        TokenService later = new TokenService(SECRET, Duration.ofHours(8), Clock.fixed(NOW.plus(Duration.ofHours(9)), ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_WithMalformedToken_ShouldReject() {
+        assertTrue(tokenService.verify("not-a-token").isEmpty());
+        assertTrue(tokenService.verify("abc.").isEmpty());
+        assertTrue(tokenService.verify("!!!.???").isEmpty());
+    }
+
+    @Test
+    void constructor_WithShortSecret_ShouldFail() {
+        assertThrows(IllegalStateException.class, () -> new TokenService("short", Duration.ofHours(8)));
+    }
+}